@@ -0,0 +1,202 @@
+package Compiler;
+
+import Grammar.ParsingTable;
+import IR.Optimizer;
+import IR.Quadruples;
+import LexicalAnalyzer.LexicalAnalyzer;
+import MIPS.AssemblyGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * this class compiles many input files at once in the same process. The
+ * files are compiled at the same time on a work-stealing pool, each file
+ * with its own {@link CompilerContext}, while the tokens and the parsing
+ * table are loaded only once and shared by all of them.
+ *
+ * the assembly of each input file is written next to it, with the
+ * extension {@link #OUTPUT_EXTENSION} instead of {@link #INPUT_EXTENSION}.
+ */
+public class BatchCompiler {
+
+    //---------------- attributes -----------------//
+
+    public static final String INPUT_EXTENSION = ".sfaa";
+    public static final String OUTPUT_EXTENSION = ".asm";
+
+    private final ParsingTable parsingTable;
+    private final ForkJoinPool pool;
+    private boolean optimizing;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates a batch compiler that uses all the available processors.
+     * @param parsingTable the parsing table shared by all the compilations.
+     */
+    public BatchCompiler(ParsingTable parsingTable) {
+        this(parsingTable, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * creates a batch compiler with a given number of threads.
+     * @param parsingTable the parsing table shared by all the compilations.
+     * @param parallelism the number of files compiled at the same time.
+     */
+    public BatchCompiler(ParsingTable parsingTable, int parallelism) {
+        this.parsingTable = parsingTable;
+        this.pool = new ForkJoinPool(Math.max(parallelism, 1));
+    }
+
+    /**
+     * @param optimizing true if the TAC of the files is optimized before
+     *                   their assembly is generated, false by default.
+     */
+    public void setOptimizing(boolean optimizing) {
+        this.optimizing = optimizing;
+    }
+
+    /**
+     * this method finds the input files of a list of paths, the directories
+     * are searched recursively for files with the input extension.
+     * @param paths the files and directories to be compiled.
+     * @return the input files, the directories are sorted by name.
+     * @throws IOException if a directory couldn't be read.
+     */
+    public static List<File> findInputs(List<String> paths) throws IOException {
+        ArrayList<File> inputs = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (!file.isDirectory()) {
+                inputs.add(file);
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(file.toPath())) {
+                inputs.addAll(walk
+                        .filter(p -> p.toString().endsWith(INPUT_EXTENSION))
+                        .filter(Files::isRegularFile)
+                        .sorted()
+                        .map(Path::toFile)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * @param input an input file.
+     * @return the file where the assembly of the input file is written.
+     */
+    public static File outputOf(File input) {
+        String name = input.getName();
+        if (name.endsWith(INPUT_EXTENSION)) {
+            name = name.substring(0, name.length() - INPUT_EXTENSION.length());
+        }
+        return new File(input.getAbsoluteFile().getParentFile(),
+                name + OUTPUT_EXTENSION);
+    }
+
+    /**
+     * this method compiles a list of files, the method returns when all of
+     * them have been compiled. An error in one file doesn't stop the
+     * compilation of the others, it is added to the report.
+     * @param inputs the files to be compiled.
+     * @return the report of the compilation.
+     */
+    public BatchReport compile(List<File> inputs) {
+        ConcurrentLinkedQueue<BatchReport.Failure> failures =
+                new ConcurrentLinkedQueue<>();
+        long start = System.nanoTime();
+        pool.invoke(new CompileTask(parsingTable, optimizing, inputs, 0,
+                inputs.size(), failures));
+        long elapsed = System.nanoTime() - start;
+        return new BatchReport(inputs.size(), new ArrayList<>(failures),
+                elapsed);
+    }
+
+    /**
+     * stops the threads of the pool once the submitted files are compiled.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * this method compiles one file with its own context, the TAC isn't
+     * printed.
+     * @param parsingTable the parsing table shared by all the files.
+     * @param optimizing true if the TAC is optimized.
+     * @param input the file to be compiled.
+     * @throws Exception if the file couldn't be compiled.
+     */
+    private static void compileFile(ParsingTable parsingTable,
+                                    boolean optimizing, File input) throws Exception {
+        File output = outputOf(input);
+        Files.deleteIfExists(output.toPath());
+        CompilerContext context = new CompilerContext();
+        context.setTrace(null);
+        context.setOptimizing(optimizing);
+        LexicalAnalyzer lexer = new LexicalAnalyzer(context);
+        Quadruples tac = parsingTable.checkGrammar(lexer.stream(input),
+                context);
+        tac = Optimizer.optimize(tac, context);
+        new AssemblyGenerator(context, output).convertTacToMIPS(tac);
+    }
+
+    /**
+     * a task that compiles a range of the input files, the range is split in
+     * two halves until it has one file so the idle threads can steal the
+     * halves that haven't been started. The tasks are never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static class CompileTask extends RecursiveAction {
+
+        private final ParsingTable parsingTable;
+        private final boolean optimizing;
+        private final List<File> inputs;
+        private final int from;
+        private final int to;
+        private final ConcurrentLinkedQueue<BatchReport.Failure> failures;
+
+        CompileTask(ParsingTable parsingTable, boolean optimizing,
+                    List<File> inputs, int from, int to,
+                    ConcurrentLinkedQueue<BatchReport.Failure> failures) {
+            this.parsingTable = parsingTable;
+            this.optimizing = optimizing;
+            this.inputs = inputs;
+            this.from = from;
+            this.to = to;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CompileTask(parsingTable, optimizing, inputs,
+                                from, middle, failures),
+                        new CompileTask(parsingTable, optimizing, inputs,
+                                middle, to, failures));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                File input = inputs.get(i);
+                try {
+                    compileFile(parsingTable, optimizing, input);
+                } catch (Exception | StackOverflowError e) {
+                    failures.add(new BatchReport.Failure(input, e));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package Compiler;
+
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.IncorrectGrammarException;
+import Terminals.Exception.TokenDoesNotExistException;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * this class stores the result of a batch compilation: the number of files,
+ * the files that couldn't be compiled with their error and the time it
+ * took to compile all of them.
+ */
+public class BatchReport {
+
+    //---------------- attributes -----------------//
+
+    private final int files;
+    private final List<Failure> failures;
+    private final long elapsedNanos;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor of the report.
+     * @param files the number of files that were compiled.
+     * @param failures the files that couldn't be compiled.
+     * @param elapsedNanos the time it took to compile all the files.
+     */
+    public BatchReport(int files, List<Failure> failures, long elapsedNanos) {
+        this.files = files;
+        this.failures = new ArrayList<>(failures);
+        this.failures.sort(Comparator.comparing(f -> f.getFile().getPath()));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public int getCompiled() {
+        return files - failures.size();
+    }
+
+    /**
+     * @return the files that couldn't be compiled, sorted by their path.
+     */
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return the number of files compiled per second, including the files
+     * that failed.
+     */
+    public double getFilesPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return files * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * this method prints the errors of the files that failed and a summary
+     * of the compilation.
+     * @param out the stream where the report is printed.
+     */
+    public void print(PrintStream out) {
+        for (Failure failure : failures) {
+            out.println(failure);
+        }
+        out.printf("%d files compiled, %d failed in %.3f s (%.1f files/s)%n",
+                getCompiled(), failures.size(), elapsedNanos / 1e9,
+                getFilesPerSecond());
+    }
+
+    /**
+     * this method creates the one line description of an error. The errors
+     * of the compiler describe the problem by themselves, the others (I/O,
+     * bugs) are prefixed with their type.
+     * @param error the error that stopped a compilation.
+     * @return the description of the error.
+     */
+    public static String describe(Throwable error) {
+        String message = error.getMessage() == null ? ""
+                : error.getMessage();
+        if (!(error instanceof AnalyzerExceptions
+                || error instanceof IncorrectGrammarException
+                || error instanceof TokenDoesNotExistException)) {
+            message = error.getClass().getSimpleName()
+                    + (message.isEmpty() ? "" : ": " + message);
+        }
+        return message.trim().replaceAll("\\s*\\n\\s*", " ");
+    }
+
+    /**
+     * a file that couldn't be compiled and the error that stopped it.
+     */
+    public static class Failure {
+
+        private final File file;
+        private final Throwable error;
+
+        public Failure(File file, Throwable error) {
+            this.file = file;
+            this.error = error;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return file.getPath() + ": " + describe(error);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package Compiler;
+
+import org.json.simple.JSONObject;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * this class records where the time of a compilation goes. For each phase
+ * it accumulates the wall time, the CPU time and the bytes allocated by the
+ * thread that ran it, and it counts what the compilation produced (tokens,
+ * tree nodes, TACs, symbols and instructions).
+ *
+ * the CPU time and the allocated bytes are read from the
+ * {@link ThreadMXBean} of the JVM, if the JVM doesn't support them they
+ * are reported as -1.
+ */
+public class CompileMetrics {
+
+    //---------------- attributes -----------------//
+
+    public enum Phase {
+        LEXING,
+        TABLE_CONSTRUCTION,
+        PARSING,
+        TAC_GENERATION,
+        OPTIMIZATION,
+        ASSEMBLY
+    }
+
+    public enum Counter {
+        TOKENS,
+        TREE_NODES,
+        TACS,
+        SYMBOLS,
+        INSTRUCTIONS
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long[] wallTime = new long[Phase.values().length];
+    private final long[] cpuTime = new long[Phase.values().length];
+    private final long[] allocatedBytes = new long[Phase.values().length];
+    private final boolean[] measured = new boolean[Phase.values().length];
+    private final long[] counters = new long[Counter.values().length];
+
+    //the values read when each phase began
+    private final long[] wallStart = new long[Phase.values().length];
+    private final long[] cpuStart = new long[Phase.values().length];
+    private final long[] allocatedStart = new long[Phase.values().length];
+
+    //---------------- methods -----------------//
+
+    /**
+     * starts measuring a phase, the phase must end in the same thread.
+     * @param phase the phase that begins.
+     */
+    public void begin(Phase phase) {
+        int i = phase.ordinal();
+        allocatedStart[i] = currentAllocatedBytes();
+        cpuStart[i] = currentCpuTime();
+        wallStart[i] = System.nanoTime();
+    }
+
+    /**
+     * stops measuring a phase and adds what it took to the phase, so a
+     * phase can be measured many times.
+     * @param phase the phase that ends.
+     */
+    public void end(Phase phase) {
+        long wall = System.nanoTime();
+        long cpu = currentCpuTime();
+        long allocated = currentAllocatedBytes();
+        int i = phase.ordinal();
+        wallTime[i] += wall - wallStart[i];
+        cpuTime[i] = cpu < 0 ? -1 : cpuTime[i] + cpu - cpuStart[i];
+        allocatedBytes[i] = allocated < 0 ? -1
+                : allocatedBytes[i] + allocated - allocatedStart[i];
+        measured[i] = true;
+    }
+
+    /**
+     * adds an amount to a counter.
+     * @param counter the counter.
+     * @param amount the amount to be added.
+     */
+    public void add(Counter counter, long amount) {
+        counters[counter.ordinal()] += amount;
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    public long getWallTime(Phase phase) {
+        return wallTime[phase.ordinal()];
+    }
+
+    public long getCpuTime(Phase phase) {
+        return cpuTime[phase.ordinal()];
+    }
+
+    public long getAllocatedBytes(Phase phase) {
+        return allocatedBytes[phase.ordinal()];
+    }
+
+    /**
+     * this method creates the report of the compilation, only the phases
+     * that were measured are included. The names are the names of the
+     * phases and counters in lower case:
+     *
+     *      {"phases": {"parsing": {"wall_ns": .., "cpu_ns": ..,
+     *                              "allocated_bytes": ..}, ..},
+     *       "counters": {"tokens": .., ..}}
+     *
+     * @return the report as a map that can be written with
+     * {@link JSONObject#toJSONString(Map)}, the entries keep their order.
+     */
+    public Map<String, Object> toJSON() {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            int i = phase.ordinal();
+            if (!measured[i]) {
+                continue;
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("wall_ns", wallTime[i]);
+            values.put("cpu_ns", cpuTime[i]);
+            values.put("allocated_bytes", allocatedBytes[i]);
+            phases.put(phase.name().toLowerCase(), values);
+        }
+        Map<String, Object> count = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            count.put(counter.name().toLowerCase(), counters[counter.ordinal()]);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("phases", phases);
+        report.put("counters", count);
+        return report;
+    }
+
+    /**
+     * @return the CPU time of the current thread, or -1 if it isn't
+     * supported.
+     */
+    private static long currentCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported()
+                ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread since it started, or
+     * -1 if it isn't supported.
+     */
+    private static long currentAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported()
+                    && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(
+                        Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
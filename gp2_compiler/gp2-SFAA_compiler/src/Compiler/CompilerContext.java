@@ -0,0 +1,103 @@
+package Compiler;
+
+import Terminals.ConstantTable;
+import Terminals.SymbolTable;
+import Tree.TreeArena;
+
+import java.io.PrintStream;
+
+/**
+ * this class stores the state of one compilation: the symbols and constants
+ * found in the input code, the counters used to name the temporary
+ * variables and the blocks of the TAC, the arena of the abstract syntax
+ * tree and the metrics of the phases.
+ *
+ * each compilation must use its own context, so many programs can be
+ * compiled in the same process (even at the same time in different
+ * threads). The tokens and the parsing table don't change while compiling,
+ * they are shared by all the contexts.
+ */
+public class CompilerContext {
+
+    //---------------- attributes -----------------//
+
+    private final SymbolTable symbolTable;
+    private final ConstantTable constantTable;
+    private final TreeArena treeArena;
+    private final CompileMetrics metrics;
+    private int temporaryCounter;
+    private int blockCounter;
+    private PrintStream trace;
+    private boolean optimizing;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, creates the context of a new compilation.
+     */
+    public CompilerContext() {
+        this.symbolTable = new SymbolTable();
+        this.constantTable = new ConstantTable();
+        this.treeArena = new TreeArena();
+        this.metrics = new CompileMetrics();
+        this.temporaryCounter = 0;
+        this.blockCounter = 0;
+        this.trace = System.out;
+        this.optimizing = false;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public ConstantTable getConstantTable() {
+        return constantTable;
+    }
+
+    public TreeArena getTreeArena() {
+        return treeArena;
+    }
+
+    public CompileMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the stream where the phases print what they generate (the
+     * TAC), the standard output by default. If it is null nothing is
+     * printed.
+     */
+    public PrintStream getTrace() {
+        return trace;
+    }
+
+    public void setTrace(PrintStream trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * @return true if the TAC is optimized before the assembly is generated
+     * (see {@link IR.Optimizer}), false by default.
+     */
+    public boolean isOptimizing() {
+        return optimizing;
+    }
+
+    public void setOptimizing(boolean optimizing) {
+        this.optimizing = optimizing;
+    }
+
+    /**
+     * @return the number of the next temporary variable of the TAC.
+     */
+    public int nextTemporary() {
+        return temporaryCounter++;
+    }
+
+    /**
+     * @return the id of the next block of the TAC.
+     */
+    public int nextBlockId() {
+        return blockCounter++;
+    }
+}
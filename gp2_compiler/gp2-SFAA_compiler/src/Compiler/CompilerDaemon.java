@@ -0,0 +1,250 @@
+package Compiler;
+
+import Grammar.ParsingTable;
+import IR.Optimizer;
+import IR.Quadruples;
+import LexicalAnalyzer.LexicalAnalyzer;
+import MIPS.AssemblyGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * this class is a compiler that stays in memory and compiles the programs
+ * sent to it through a port of the loopback interface. The token database,
+ * the parsing table and the automaton of the lexical analyzer are loaded
+ * only once, and the compiled code stays warm between the requests, so a
+ * request only pays for the compilation itself.
+ *
+ * each connection is handled by its own thread and can send many requests,
+ * one after the other. A request is a line of text followed, for COMPILE,
+ * by the source code:
+ *
+ *      COMPILE [length]\n[length bytes of source code]
+ *      FILE [path]\n
+ *
+ * and each request receives one response, with the assembly if the
+ * compilation succeeded or the description of the error if it failed:
+ *
+ *      OK [length]\n[length bytes of assembly]
+ *      ERROR [length]\n[length bytes of error]
+ */
+public class CompilerDaemon implements Closeable {
+
+    //---------------- attributes -----------------//
+
+    public static final int DEFAULT_PORT = 7477;
+
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private final ParsingTable parsingTable;
+    private final ServerSocket server;
+    private final ExecutorService workers;
+    private volatile boolean optimizing;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates the daemon and starts listening on the loopback interface, the
+     * connections aren't accepted until {@link #serve()} is called.
+     * @param parsingTable the parsing table shared by all the requests.
+     * @param port the port to listen on, 0 to use any free port.
+     * @throws IOException if the port couldn't be opened.
+     */
+    public CompilerDaemon(ParsingTable parsingTable, int port) throws IOException {
+        this.parsingTable = parsingTable;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "compiler-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @param optimizing true if the TAC of the requests is optimized before
+     *                   their assembly is generated, false by default.
+     */
+    public void setOptimizing(boolean optimizing) {
+        this.optimizing = optimizing;
+    }
+
+    /**
+     * this method accepts connections until the daemon is closed, each
+     * connection is handled in a thread of the pool.
+     * @throws IOException if the socket failed while it was open.
+     */
+    public void serve() throws IOException {
+        while (!server.isClosed()) {
+            Socket connection;
+            try {
+                connection = server.accept();
+            } catch (SocketException e) {
+                if (server.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            workers.execute(() -> handle(connection));
+        }
+    }
+
+    /**
+     * stops accepting connections, the requests being compiled are
+     * abandoned.
+     * @throws IOException if the socket couldn't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        workers.shutdownNow();
+    }
+
+    /**
+     * this method answers the requests of a connection until the client
+     * closes it.
+     * @param connection the connection with the client.
+     */
+    private void handle(Socket connection) {
+        try (Socket socket = connection) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            String request;
+            while ((request = readLine(in)) != null) {
+                respond(request, in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away, there is nobody to report it to
+        }
+    }
+
+    /**
+     * this method reads one request and writes its response.
+     * @param request the first line of the request.
+     * @param in the stream with the rest of the request.
+     * @param out the stream where the response is written.
+     * @throws IOException if the connection failed.
+     */
+    private void respond(String request, InputStream in, OutputStream out) throws IOException {
+        String command = request;
+        String argument = "";
+        int space = request.indexOf(' ');
+        if (space != -1) {
+            command = request.substring(0, space);
+            argument = request.substring(space + 1).trim();
+        }
+        ByteBuffer source;
+        try {
+            switch (command) {
+                case "COMPILE":
+                    int length = Integer.parseInt(argument);
+                    if (length < 0) {
+                        throw new NumberFormatException(argument);
+                    }
+                    byte[] code = in.readNBytes(length);
+                    if (code.length < length) {
+                        throw new EOFException("the source code ended early");
+                    }
+                    source = ByteBuffer.wrap(code);
+                    break;
+                case "FILE":
+                    source = ByteBuffer.wrap(Files.readAllBytes(Path.of(argument)));
+                    break;
+                default:
+                    write(out, "ERROR", "Unknown request " + command);
+                    return;
+            }
+        } catch (NumberFormatException e) {
+            write(out, "ERROR", "Invalid length " + argument);
+            return;
+        } catch (EOFException e) {
+            throw e;
+        } catch (IOException e) {
+            write(out, "ERROR", BatchReport.describe(e));
+            return;
+        }
+        try {
+            write(out, "OK", compile(source));
+        } catch (Exception | StackOverflowError e) {
+            write(out, "ERROR", BatchReport.describe(e));
+        }
+    }
+
+    /**
+     * this method compiles a source code with its own context.
+     * @param source the source code.
+     * @return the assembly of the source code.
+     * @throws Exception if the source code couldn't be compiled.
+     */
+    private String compile(ByteBuffer source) throws Exception {
+        CompilerContext context = new CompilerContext();
+        context.setTrace(null);
+        context.setOptimizing(optimizing);
+        LexicalAnalyzer lexer = new LexicalAnalyzer(context);
+        Quadruples tac = parsingTable.checkGrammar(lexer.stream(source),
+                context);
+        tac = Optimizer.optimize(tac, context);
+        StringWriter assembly = new StringWriter();
+        new AssemblyGenerator(context, assembly).convertTacToMIPS(tac);
+        return assembly.toString();
+    }
+
+    /**
+     * this method writes a response.
+     * @param out the stream where the response is written.
+     * @param status OK or ERROR.
+     * @param body the assembly or the error.
+     * @throws IOException if the connection failed.
+     */
+    private static void write(OutputStream out, String status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        out.write((status + " " + bytes.length + "\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+    }
+
+    /**
+     * this method reads a line of the request.
+     * @param in the stream of the request.
+     * @return the line without the line break, or null if the stream ended
+     * before the line started.
+     * @throws IOException if the connection failed or the line is too long.
+     */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (line.size() == MAX_LINE_LENGTH) {
+                throw new IOException("request line too long");
+            }
+            line.write(b);
+        }
+        if (b == -1 && line.size() == 0) {
+            return null;
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+}
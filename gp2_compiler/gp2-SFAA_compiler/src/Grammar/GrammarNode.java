@@ -14,6 +14,7 @@ public class GrammarNode implements Comparable<GrammarNode>{
     //---------------- attributes -----------------//
 
     private String nonTerminalId;
+    private int nonTerminalIndex = -1;
     private boolean isTerminal;
     private Token terminal;
 
@@ -34,7 +35,7 @@ public class GrammarNode implements Comparable<GrammarNode>{
             if (id.compareTo("e") == 0) {
                 this.terminal = null;
             } else {
-                this.terminal = new Token(id);
+                this.terminal = Token.of(id);
             }
         } else {
             this.nonTerminalId = id;
@@ -63,6 +64,18 @@ public class GrammarNode implements Comparable<GrammarNode>{
         return nonTerminalId;
     }
 
+    /**
+     * @return the dense index of the non-terminal in the parsing table, or
+     * -1 if it wasn't interned by a parsing table.
+     */
+    public int getNonTerminalIndex() {
+        return nonTerminalIndex;
+    }
+
+    void setNonTerminalIndex(int nonTerminalIndex) {
+        this.nonTerminalIndex = nonTerminalIndex;
+    }
+
     @Override
     public int compareTo(GrammarNode o) {
         if (o.isTerminal &&  this.isTerminal){
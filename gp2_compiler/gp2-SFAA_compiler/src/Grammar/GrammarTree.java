@@ -22,6 +22,7 @@ public class GrammarTree {
 
     private HashMap<String, ArrayList<ArrayList<GrammarNode>>> tree = new HashMap();
     public static final String START = "SFAA";
+    public static final String GRAMMAR_FILE = "Resources/grammar.json";
 
     //---------------- methods -----------------//
 
@@ -32,7 +33,7 @@ public class GrammarTree {
     public GrammarTree(){
         JSONParser parser = new JSONParser();
         try {
-            JSONArray grammar = (JSONArray) parser.parse(new FileReader("Resources/grammar.json"));
+            JSONArray grammar = (JSONArray) parser.parse(new FileReader(GRAMMAR_FILE));
             String id;
             ArrayList<ArrayList<GrammarNode>> node;
             ArrayList<GrammarNode> rule;
@@ -1,18 +1,26 @@
 package Grammar;
 
-import TAC.TAC;
+import Compiler.CompileMetrics;
+import Compiler.CompilerContext;
+import IR.Quadruples;
 import TAC.TACGenerator;
 import Terminals.Exception.AnalyzerExceptions;
 import Terminals.Exception.IncorrectGrammarException;
 import Terminals.Exception.TokenDoesNotExistException;
 import Terminals.SymbolTable;
 import Terminals.Token;
+import Terminals.TokenCursor;
 import Terminals.TokenDatabase;
-import Tree.Tree;
+import Terminals.TokenStream;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.LinkedList;
 
 
 /**
@@ -23,426 +31,714 @@ public class ParsingTable {
 
     //---------------- attributes -----------------//
 
-    private HashMap<String, ArrayList<Token>> first;
-    private HashMap<String , HashMap<Integer, ArrayList<GrammarNode>>> firstProduction;
-    private HashMap<String, ArrayList<Token>> follow;
-    private HashMap<String, ArrayList<ArrayList<GrammarNode>>> auxGrammarTree =
-            new HashMap();
-    private Tree<GrammarNode> parsingTree =
-            new Tree<GrammarNode>(new GrammarNode(GrammarTree.START, false));
-    //each row = non-terminal
-    //each column = terminal
-    //related by producitons
-    private HashMap<String, HashMap<Integer, ArrayList<GrammarNode>>> parsingTable;
+    //first and follow sets of each non-terminal, indexed by token id
+    private BitSet[] first;
+    private BitSet[] follow;
+    //non-terminals that can derive the empty string
+    private BitSet nullable;
+    private ArrayList<TableConflict> conflicts;
+    //each row = non-terminal (by its index in nonTerminals)
+    //each column = terminal (by its token id)
+    //each cell = index of the production in productions, EPSILON or ERROR
+    private int[][] parsingTable;
+    private ArrayList<String> nonTerminals;
+    private HashMap<String, Integer> nonTerminalIndex;
+    private ArrayList<GrammarNode[]> productions;
+    //row of the non-terminal that owns each production
+    private ArrayList<Integer> productionOwner;
+    //the productions encoded as grammar symbols: a token id for terminals
+    //and (number of token ids + row) for non-terminals
+    private int[][] productionSymbols;
+    //one shared grammar node for each grammar symbol
+    private GrammarNode[] symbolNodes;
+    //rows of the non-terminals that don't get a node in the syntax tree
+    private boolean[] transparent;
+    private int terminals;
+    //symbols from this value on mark the end of a non-terminal (one per row)
+    private int reduceMarker;
+    private int startSymbol;
     private GrammarTree grammar;
 
+    //special values of the cells of the parsing table
+    private static final int ERROR = -1;
+    private static final int EPSILON = -2;
+
+    private static final int INITIAL_STACK_SIZE = 64;
+
+    //tags used to store the grammar nodes in the cache
+    private static final byte TERMINAL_NODE = 0;
+    private static final byte NON_TERMINAL_NODE = 1;
+    private static final byte EMPTY_NODE = 2;
+
 
     //---------------- methods -----------------//
 
     /**
      * this is the default constructor of the class. This constructor
      * generates the first and follow sets, and creates the parsing table.
+     * If the table was already built from the same grammar by a previous
+     * execution, then it is loaded from the cache instead.
      * @throws TokenDoesNotExistException if the grammar has a token that is
      * not defined in the token database.
      */
     public ParsingTable() throws TokenDoesNotExistException {
+        this.nonTerminals = new ArrayList<>();
+        this.nonTerminalIndex = new HashMap<>();
+        this.productions = new ArrayList<>();
+        this.productionOwner = new ArrayList<>();
+        this.conflicts = new ArrayList<>();
+
+        byte[] hash;
+        try {
+            hash = ParsingTableCache.grammarHash();
+        } catch (IOException e) {
+            hash = null;
+        }
+        if (hash != null && loadFromCache(hash)) {
+            buildSymbols();
+            return;
+        }
+
         this.grammar = new GrammarTree();
-        this.first = new HashMap<>();
-        this.follow = new HashMap<>();
-        this.firstProduction = new HashMap<>();
-        this.parsingTable = new HashMap<>();
+        InitilizeTable();
         First();
         Follow();
-        InitilizeTable();
         ParsingTableCreator();
+        buildSymbols();
+
+        if (hash != null) {
+            try {
+                ParsingTableCache.save(hash, this::writeTable);
+            } catch (IOException e) {
+                // the cache is only an optimization, the table is still
+                // usable if it couldn't be stored
+            }
+        }
     }
 
     /**
-     * this function generates the first set for the full grammar
+     * @return the LL(1) conflicts found while building the table. When a
+     * cell had more than one candidate the epsilon production was kept, or
+     * the first production in the order of the grammar otherwise.
      */
-    private void First(){
+    public ArrayList<TableConflict> getConflicts() {
+        return conflicts;
+    }
 
-        for(Object k : grammar.getTable().keySet()) {
-            String key = (String)k;
-            if (!first.containsKey(key)){
-                firstProduction.put(key, new HashMap<>());
-                first.put(key, new ArrayList<>());
-                getFirstOfProduction(key);
-            }
+    /**
+     * loads the table and the first and follow sets from the cache.
+     * @param hash the hash of the current grammar.
+     * @return true if the table was loaded, false if there was no valid
+     * cache for this grammar.
+     * @throws TokenDoesNotExistException if the cache has a token that is
+     * not defined in the token database.
+     */
+    private boolean loadFromCache(byte[] hash) throws TokenDoesNotExistException {
+        DataInputStream in = ParsingTableCache.open(hash);
+        if (in == null) {
+            return false;
+        }
+        try (in) {
+            readTable(in);
+            return true;
+        } catch (IOException e) {
+            this.nonTerminals.clear();
+            this.nonTerminalIndex.clear();
+            this.productions.clear();
+            this.productionOwner.clear();
+            this.conflicts.clear();
+            return false;
         }
     }
 
     /**
-     * this function recursively generates the first set of a non-terminal
-     * productions
-     * @param nonTerminalId the non-terminal to generate the first set to.
-     * @return the first set of the specified non-terminal.
+     * writes the first and follow sets, the productions, the parsing table
+     * and its conflicts.
+     * @param out the stream to write to.
+     * @throws IOException if the stream couldn't be written.
      */
-    private ArrayList<Token> getFirstOfProduction(String nonTerminalId){
-        ArrayList<Token> firstSet= new ArrayList<>();
-        HashMap<Integer, ArrayList<GrammarNode>> auxFirstProduction =
-                new HashMap<>();
-        ArrayList<ArrayList<GrammarNode>> productionRules =
-                (ArrayList<ArrayList<GrammarNode>>)this.grammar.getTable().get(nonTerminalId);
-        boolean done = true;
-
-
-        for (ArrayList<GrammarNode> rule :
-                productionRules){
-            int i = 0;
-            done = true;
-            do{
-                if(rule.get(i).isTerminal()){
-                    firstSet.add(rule.get(i).getTerminal());
-                    if (rule.get(i).getTerminal()!=null)
-                        auxFirstProduction.put(rule.get(i).getTerminal().getId(), rule);
-                    done = true;
-                }else{
-                    String auxNonTerminal = rule.get(i).getNonTerminalID();
-                    if(!first.containsKey(auxNonTerminal)){
-                        first.put(auxNonTerminal, new ArrayList<>());
-                        firstProduction.put(auxNonTerminal, new HashMap<>());
-
-                        //if the aux set contains an epsilon, we need to investigate further
-                        ArrayList<Token> firstSetAux = new ArrayList<>(getFirstOfProduction(auxNonTerminal));
-                        if (firstSetAux.contains(null)){
-                            i++;
-                            done = false;
-                        }else{
-                            done = true;
-                        }
-
-                        for (Token t :firstSetAux){
-                            auxFirstProduction.put(t.getId(), rule);
-                        }
-
-                        firstSet.addAll(firstSetAux);
-                    }else{
-                        for (Token t :this.first.get(auxNonTerminal)){
-                            //if (t != null)
-                                auxFirstProduction.put(t.getId(), rule);
-                        }
-                        firstSet.addAll(this.first.get(auxNonTerminal));
-                        done = true;
-                    }
+    private void writeTable(DataOutputStream out) throws IOException {
+        out.writeInt(nonTerminals.size());
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            out.writeUTF(nonTerminals.get(i));
+            out.writeBoolean(nullable.get(i));
+            writeTokens(out, first[i]);
+            writeTokens(out, follow[i]);
+        }
+
+        out.writeInt(productions.size());
+        for (int i = 0; i < productions.size(); i++) {
+            out.writeInt(productionOwner.get(i));
+            out.writeInt(productions.get(i).length);
+            for (GrammarNode node : productions.get(i)) {
+                if (!node.isTerminal()) {
+                    out.writeByte(NON_TERMINAL_NODE);
+                    out.writeUTF(node.getNonTerminalID());
+                } else if (node.getTerminal() == null) {
+                    out.writeByte(EMPTY_NODE);
+                } else {
+                    out.writeByte(TERMINAL_NODE);
+                    out.writeInt(node.getTerminal().getId());
                 }
-            }while(!done && i < rule.size());
+            }
+        }
+
+        out.writeInt(TokenDatabase.getNumberOfIds());
+        for (int[] row : parsingTable) {
+            for (int cell : row) {
+                out.writeInt(cell);
+            }
         }
 
-        firstProduction.get(nonTerminalId).putAll(auxFirstProduction);
-        first.get(nonTerminalId).addAll(firstSet);
-        return firstSet;
+        out.writeInt(conflicts.size());
+        for (TableConflict conflict : conflicts) {
+            out.writeInt(nonTerminalIndex.get(conflict.getNonTerminalID()));
+            out.writeInt(conflict.getTerminal());
+            out.writeInt(productions.indexOf(conflict.getKept()));
+            out.writeInt(productions.indexOf(conflict.getRejected()));
+        }
     }
 
     /**
-     * this function generates the follow set for the full grammar
+     * reads the first and follow sets, the productions, the parsing table
+     * and its conflicts written by {@link #writeTable(DataOutputStream)}.
+     * @param in the stream to read from.
+     * @throws IOException if the stream couldn't be read.
+     * @throws TokenDoesNotExistException if the stream has a token that is
+     * not defined in the token database.
      */
-    private void Follow() {
+    private void readTable(DataInputStream in) throws IOException, TokenDoesNotExistException {
+        int rows = in.readInt();
+        first = new BitSet[rows];
+        follow = new BitSet[rows];
+        nullable = new BitSet(rows);
+        for (int i = 0; i < rows; i++) {
+            internNonTerminal(in.readUTF());
+            nullable.set(i, in.readBoolean());
+            first[i] = readTokens(in);
+            follow[i] = readTokens(in);
+        }
 
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            productionOwner.add(in.readInt());
+            GrammarNode[] production = new GrammarNode[in.readInt()];
+            for (int j = 0; j < production.length; j++) {
+                byte tag = in.readByte();
+                if (tag == NON_TERMINAL_NODE) {
+                    production[j] = new GrammarNode(in.readUTF(), false);
+                    internNode(production[j]);
+                } else if (tag == EMPTY_NODE) {
+                    production[j] = new GrammarNode("e", true);
+                } else {
+                    production[j] = new GrammarNode(Token.of(in.readInt()));
+                }
+            }
+            productions.add(production);
+        }
+
+        int columns = in.readInt();
+        if (columns != TokenDatabase.getNumberOfIds()) {
+            throw new IOException("The cached table has a different number of tokens");
+        }
+        parsingTable = new int[rows][columns];
+        for (int[] row : parsingTable) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = in.readInt();
+            }
+        }
+
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = nonTerminals.get(in.readInt());
+            int terminal = in.readInt();
+            int kept = in.readInt();
+            int rejected = in.readInt();
+            conflicts.add(new TableConflict(key, terminal,
+                    kept == -1 ? null : productions.get(kept),
+                    rejected == -1 ? null : productions.get(rejected)));
+        }
+    }
+
+    private void writeTokens(DataOutputStream out, BitSet tokens) throws IOException {
+        long[] words = tokens.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private BitSet readTokens(DataInputStream in) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * this function initializes the parsing table. Every non-terminal of
+     * the grammar gets a row of the table and every production rule gets
+     * an index, so the table only needs to store integers. All the cells
+     * start as errors.
+     */
+    private void InitilizeTable(){
+        internNonTerminal(GrammarTree.START);
         for (Object k : grammar.getTable().keySet()) {
-            String key = (String) k;
-            if (!this.follow.containsKey(key)) {
-                this.follow.put(key, new ArrayList<>());
-                getFollowOfProduction(key);
+            internNonTerminal((String) k);
+        }
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            String key = nonTerminals.get(i);
+            for (ArrayList<GrammarNode> rule : getRules(key)) {
+                for (GrammarNode node : rule) {
+                    internNode(node);
+                }
+                productions.add(rule.toArray(new GrammarNode[0]));
+                productionOwner.add(nonTerminalIndex.get(key));
             }
         }
+        parsingTable = new int[nonTerminals.size()][TokenDatabase.getNumberOfIds()];
+        for (int[] row : parsingTable) {
+            Arrays.fill(row, ERROR);
+        }
+    }
+
+    private ArrayList<ArrayList<GrammarNode>> getRules(String nonTerminalId) {
+        ArrayList<ArrayList<GrammarNode>> rules =
+                (ArrayList<ArrayList<GrammarNode>>) grammar.getTable().get(nonTerminalId);
+        return rules == null ? new ArrayList<>() : rules;
     }
 
     /**
-     * this function recursively generates the follow set of a non-terminal
-     * productions
-     * @param nonTerminalId the id of the non-terminal to generate the follow
-     *                     set to
-     * @return the follow set of the given non-terminal
+     * this function encodes every production as an array of grammar
+     * symbols, so the parser can push them into a stack of integers, and
+     * creates the shared grammar node of each symbol.
+     * @throws TokenDoesNotExistException if a production has a token that
+     * is not defined in the token database.
      */
-    private ArrayList<Token> getFollowOfProduction(String nonTerminalId){
-        ArrayList<Token> followSet= new ArrayList<>();
-        ArrayList<ArrayList<GrammarNode>> productionRules;
-        boolean done = true;
-
-        for (Object k : grammar.getTable().keySet()) { // vertical movement
-            String key = (String) k;
-            productionRules = (ArrayList<ArrayList<GrammarNode>>) this.grammar
-                    .getTable().get(key);
-                    //for each grammar rule
-            for (ArrayList<GrammarNode> rule : productionRules){
-                for (int i = 0; i < rule.size(); i++) {
-                    done = true;
-                    //if we're at a non-terminal
-                    if (!rule.get(i).isTerminal() && rule.get(i).getNonTerminalID().equals(nonTerminalId)){
-                        int j = 1;
-                        do{
-                            done = true;
-                            //if we haven't gone over the size of the array, recurse
-                            if(i+j < rule.size()){
-                                if(rule.get(i+1).isTerminal()){
-                                    if (!containsToken(followSet,rule.get(i + 1).getTerminal()))
-                                        followSet.add(rule.get(i+1).getTerminal());
-                                }else{
-                                    String nextNonTerminal =
-                                            rule.get(i+1).getNonTerminalID();
-                                    //repeat all previous steps with the next position
-                                    if (this.first.get(nextNonTerminal).contains(null)){
-                                        done = false;
-                                        j++;
-                                    }
-                                    //check for already exisisting
-                                    //followSet.addAll(this.first.get(nextNonTerminal));
-                                    for (Token t : this.first.get(nextNonTerminal)) {
-                                        if(!containsToken(followSet, t))
-                                            followSet.add(t);
-                                    }
-                                }
-                            }else{
-                                //add the terminals of 9 non terminal id (key)that has the production
-                                //add the follow of key
-                                if (nonTerminalId != key){
-                                    if (!this.follow.containsKey(key)) {
-                                    follow.put(key, new ArrayList<>());
-                                    //followSet.addAll(getFollowOfProduction(key));
-                                    for (Token t : getFollowOfProduction(key)) {
-                                        if (!containsToken(followSet, t))
-                                            followSet.add(t);
-                                    }
-                                }else{
-                                    //followSet.addAll(this.follow.get(key));
-                                    for (Token t : this.follow.get(key)) {
-                                        if (!containsToken(followSet,t))
-                                            followSet.add(t);
-                                    }
-
-                                }
-                                    done = true;
-                                }
-
-                            }
-                        }while (!done);
+    private void buildSymbols() throws TokenDoesNotExistException {
+        terminals = TokenDatabase.getNumberOfIds();
+        symbolNodes = new GrammarNode[terminals + nonTerminals.size()];
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            symbolNodes[terminals + i] = new GrammarNode(nonTerminals.get(i), false);
+            internNode(symbolNodes[terminals + i]);
+        }
+        startSymbol = terminals + nonTerminalIndex.get(GrammarTree.START);
+        reduceMarker = terminals + nonTerminals.size();
+        transparent = new boolean[nonTerminals.size()];
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            transparent[i] = SyntaxTreeBuilder.isTransparent(nonTerminals.get(i));
+        }
+
+        productionSymbols = new int[productions.size()][];
+        for (int p = 0; p < productions.size(); p++) {
+            GrammarNode[] rule = productions.get(p);
+            int[] symbols = new int[rule.length];
+            for (int i = 0; i < rule.length; i++) {
+                if (!rule[i].isTerminal()) {
+                    symbols[i] = terminals + rule[i].getNonTerminalIndex();
+                } else if (rule[i].getTerminal() != null) {
+                    symbols[i] = rule[i].getTerminal().getId();
+                    if (symbolNodes[symbols[i]] == null) {
+                        symbolNodes[symbols[i]] = new GrammarNode(Token.of(symbols[i]));
                     }
+                } else {
+                    //the epsilon productions are never pushed
+                    symbols[i] = -1;
                 }
             }
+            productionSymbols[p] = symbols;
         }
+    }
 
-        this.follow.get(nonTerminalId).addAll(followSet);
-        return followSet;
+    /**
+     * gives a row of the parsing table to a non-terminal if it doesn't have
+     * one yet.
+     * @param nonTerminalId the id of the non-terminal.
+     * @return the row of the non-terminal.
+     */
+    private int internNonTerminal(String nonTerminalId) {
+        Integer index = nonTerminalIndex.get(nonTerminalId);
+        if (index == null) {
+            index = nonTerminals.size();
+            nonTerminals.add(nonTerminalId);
+            nonTerminalIndex.put(nonTerminalId, index);
+        }
+        return index;
+    }
 
+    /**
+     * stores in a grammar node the row of the parsing table of its
+     * non-terminal, so the parser doesn't need to look it up by name.
+     * @param node the node to be updated, terminals are ignored.
+     */
+    private void internNode(GrammarNode node) {
+        if (!node.isTerminal()) {
+            node.setNonTerminalIndex(internNonTerminal(node.getNonTerminalID()));
+        }
     }
 
     /**
-     * this function checks if a token is in a list of tokens
-     * @param f the list of token
-     * @param t the token to look for
-     * @return true if the token is in the list of tokens, false otherwise.
+     * this function adds the first set of a sequence of grammar nodes to a
+     * set of tokens.
+     * @param rule the sequence of grammar nodes.
+     * @param from the position of the first node of the sequence.
+     * @param set the set where the tokens are added.
+     * @return true if the whole sequence can derive the empty string, false
+     * otherwise.
      */
-    private boolean containsToken(ArrayList<Token> f, Token t){
-        if (t == null)
-            return true;
-        for (Token token : f) {
-            if (token.getId() == t.getId()){
-                return true;
+    private boolean addFirstOfSequence(GrammarNode[] rule, int from, BitSet set) {
+        for (int i = from; i < rule.length; i++) {
+            GrammarNode node = rule[i];
+            if (node.isTerminal()) {
+                if (node.getTerminal() != null) {
+                    set.set(node.getTerminal().getId());
+                    return false;
+                }
+            } else {
+                int row = node.getNonTerminalIndex();
+                if (row == -1) {
+                    return false;
+                }
+                set.or(first[row]);
+                if (!nullable.get(row)) {
+                    return false;
+                }
             }
         }
-        return false;
+        return true;
     }
 
     /**
-     * this function initializes the parsing table.
+     * this function generates the first set of every non-terminal of the
+     * grammar. It's a fixpoint: a non-terminal is recomputed every time the
+     * first set of a non-terminal used in its productions grows, until no
+     * set changes.
      */
-    private void InitilizeTable(){
-        for (Object k : grammar.getTable().keySet()) {
-            String key = (String) k;
-            for (Integer terminal : TokenDatabase.tokenList.keySet()) {
-                parsingTable.put(key, new HashMap<>());
-                parsingTable.get(key).put(terminal,
-                        new ArrayList<>());
+    private void First(){
+        int rows = nonTerminals.size();
+        first = new BitSet[rows];
+        nullable = new BitSet(rows);
+        //non-terminals whose productions use each non-terminal
+        ArrayList<ArrayList<Integer>> users = new ArrayList<>(rows);
+        //productions of each non-terminal, grouped once before the worklist
+        ArrayList<ArrayList<GrammarNode[]>> rules = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            first[i] = new BitSet();
+            users.add(new ArrayList<>());
+            rules.add(new ArrayList<>());
+        }
+        for (int p = 0; p < productions.size(); p++) {
+            rules.get(productionOwner.get(p)).add(productions.get(p));
+            for (GrammarNode node : productions.get(p)) {
+                if (!node.isTerminal() && node.getNonTerminalIndex() != -1) {
+                    users.get(node.getNonTerminalIndex()).add(productionOwner.get(p));
+                }
             }
+        }
 
+        ArrayDeque<Integer> worklist = new ArrayDeque<>();
+        BitSet queued = new BitSet(rows);
+        for (int i = 0; i < rows; i++) {
+            worklist.add(i);
+            queued.set(i);
+        }
+        BitSet set = new BitSet();
+        while (!worklist.isEmpty()) {
+            int row = worklist.poll();
+            queued.clear(row);
+            set.clear();
+            boolean isNullable = false;
+            for (GrammarNode[] rule : rules.get(row)) {
+                isNullable |= addFirstOfSequence(rule, 0, set);
+            }
+            if (!set.equals(first[row]) || isNullable != nullable.get(row)) {
+                first[row].or(set);
+                nullable.set(row, isNullable || nullable.get(row));
+                for (int user : users.get(row)) {
+                    if (!queued.get(user)) {
+                        worklist.add(user);
+                        queued.set(user);
+                    }
+                }
+            }
         }
     }
 
     /**
-     * checks if any of the productions of one non-terminal contain an epsilon.
-     * @param key the key of non-terminal in the parsing table.
-     * @return true if any of the productions contain an epsilon, false
-     * otherwise.
+     * this function generates the follow set of every non-terminal of the
+     * grammar. The tokens that come from the first set of what follows a
+     * non-terminal are added once, then the follow sets are propagated from
+     * each non-terminal to the non-terminals that end its productions until
+     * no set changes.
      */
-    private boolean containsEpsilon(String key) {
-        ArrayList<ArrayList<GrammarNode>> productionRules = (ArrayList<ArrayList<GrammarNode>>) this.grammar.getTable()
-                .get(key);
-        for (ArrayList<GrammarNode> rule : productionRules) {
-            for (GrammarNode g : rule) {
-                if (g.isTerminal() && g.getTerminal() == null) {
-                    return true;
+    private void Follow() {
+        int rows = nonTerminals.size();
+        follow = new BitSet[rows];
+        //non-terminals whose follow set contains the follow set of each
+        //non-terminal
+        ArrayList<ArrayList<Integer>> inherits = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            follow[i] = new BitSet();
+            inherits.add(new ArrayList<>());
+        }
+        for (int p = 0; p < productions.size(); p++) {
+            GrammarNode[] rule = productions.get(p);
+            int owner = productionOwner.get(p);
+            for (int i = 0; i < rule.length; i++) {
+                int row = rule[i].isTerminal() ? -1 : rule[i].getNonTerminalIndex();
+                if (row == -1) {
+                    continue;
+                }
+                if (addFirstOfSequence(rule, i + 1, follow[row])
+                        && owner != row
+                        && !inherits.get(owner).contains(row)) {
+                    inherits.get(owner).add(row);
+                }
+            }
+        }
+
+        ArrayDeque<Integer> worklist = new ArrayDeque<>();
+        BitSet queued = new BitSet(rows);
+        for (int i = 0; i < rows; i++) {
+            worklist.add(i);
+            queued.set(i);
+        }
+        BitSet set = new BitSet();
+        while (!worklist.isEmpty()) {
+            int row = worklist.poll();
+            queued.clear(row);
+            for (int heir : inherits.get(row)) {
+                set.clear();
+                set.or(follow[row]);
+                set.andNot(follow[heir]);
+                if (!set.isEmpty()) {
+                    follow[heir].or(set);
+                    if (!queued.get(heir)) {
+                        worklist.add(heir);
+                        queued.set(heir);
+                    }
                 }
             }
-            if (rule.contains(null)) {
+        }
+    }
+
+    /**
+     * checks if a production contains an epsilon.
+     * @param rule the production.
+     * @return true if the production contains an epsilon, false otherwise.
+     */
+    private boolean containsEpsilon(GrammarNode[] rule) {
+        for (GrammarNode g : rule) {
+            if (g == null || (g.isTerminal() && g.getTerminal() == null)) {
                 return true;
             }
         }
         return false;
     }
 
-
     /**
      * this function goes throw all the productions and first/follow sets and
-     * creates the parsing table.
+     * creates the parsing table. A production is added under every token of
+     * its first set, and if it can derive the empty string, under every
+     * token of the follow set of its non-terminal. The productions with an
+     * epsilon are stored as EPSILON, so the parser just pops the
+     * non-terminal.
+     *
+     * when a cell already has a different production, the conflict is
+     * recorded, the epsilon production is kept if it's one of the two, or
+     * the one that was added first otherwise.
      *
      * the parsing table needs to be initialized using the method (InitilizeTable) before
      * calling this method.
-     * @throws TokenDoesNotExistException if any token that was found in any
-     * production didn't exist in the token database.
      */
-    private void ParsingTableCreator() throws TokenDoesNotExistException {
-
-        for (Object k : grammar.getTable().keySet()) {
-            String key = (String) k;
-            if (containsEpsilon(key)){
-                // add epsilon to all the slots with the follow set of this non terminal
-
-                for (Token followElement : follow.get(key)) {
-                    if(parsingTable.get(key).get(followElement.getId()) == null)
-                        parsingTable.get(key).put(followElement.getId(),
-                                new ArrayList<GrammarNode>());
-                    parsingTable.get(key).get(followElement.getId()).add(new GrammarNode("epsilon",true));
-                }
+    private void ParsingTableCreator() {
+        BitSet set = new BitSet();
+        for (int p = 0; p < productions.size(); p++) {
+            GrammarNode[] rule = productions.get(p);
+            int row = productionOwner.get(p);
+            int value = containsEpsilon(rule) ? EPSILON : p;
+            set.clear();
+            if (addFirstOfSequence(rule, 0, set)) {
+                set.or(follow[row]);
             }
-            // add the production that produces the first under all of the first set of this non terminal
-            //i.e. fill in each square of the parse table
-            for (Token firstElement : first.get(key)) {
-                if (firstElement != null){
-                    if(parsingTable.get(key).get(firstElement.getId()) == null)
-                        parsingTable.get(key).put(firstElement.getId(),
-                                new ArrayList<GrammarNode>());
-                    parsingTable.get(key).get(firstElement.getId()).addAll(
-                            firstProduction.get(key).get(firstElement.getId())
-                    );
-                }
+            for (int t = set.nextSetBit(0); t >= 0; t = set.nextSetBit(t + 1)) {
+                setCell(row, t, value);
             }
         }
     }
 
+    /**
+     * sets a cell of the parsing table, recording a conflict if it already
+     * had a different value.
+     * @param row the row of the non-terminal.
+     * @param terminal the id of the token.
+     * @param value the production index or EPSILON.
+     */
+    private void setCell(int row, int terminal, int value) {
+        int current = parsingTable[row][terminal];
+        if (current == ERROR || current == value) {
+            parsingTable[row][terminal] = value;
+            return;
+        }
+        int kept = current;
+        int rejected = value;
+        if (value == EPSILON) {
+            kept = value;
+            rejected = current;
+        }
+        parsingTable[row][terminal] = kept;
+        conflicts.add(new TableConflict(nonTerminals.get(row), terminal,
+                kept == EPSILON ? null : productions.get(kept),
+                rejected == EPSILON ? null : productions.get(rejected)));
+    }
+
 
     /**
-     * this function goes throw a list of tokens and uses the LL1 parsing
-     * techniques to parse and check that this list of tokens matches the
+     * this function goes throw a stream of tokens and uses the LL1 parsing
+     * techniques to parse and check that this stream of tokens matches the
      * grammar. Moreover, this method will generate a grammar tree out of
-     * this token array. Finally, it will create the TACs for this grammar
+     * this token stream. Finally, it will create the TACs for this grammar
      * and return it.
-     * @param input the token array
+     * @param input the token stream
+     * @param context the compilation of the token stream.
      * @return the TAC of the input token array that corresponds to the
-     * language specified grammar.
+     * language specified grammar, encoded as quadruples.
      * @throws TokenDoesNotExistException if during the parsing process it
      * encounters a token that isn't in the token database
      * @throws IncorrectGrammarException if the grammar in the input token
-     * list doesn't match the grammar defind by the language specification.
+     * stream doesn't match the grammar defind by the language specification.
      * @throws AnalyzerExceptions if while generating the TAC there was a
      * problem.
      */
-    public ArrayList<TAC> checkGrammar(ArrayList<Token> input) throws TokenDoesNotExistException, IncorrectGrammarException, AnalyzerExceptions {
+    public Quadruples checkGrammar(TokenStream input, CompilerContext context) throws TokenDoesNotExistException, IncorrectGrammarException, AnalyzerExceptions {
+        return checkGrammar(input.cursor(), context);
+    }
 
-        LinkedList<GrammarNode> stack = new LinkedList<>();
-        stack.push(new GrammarNode(GrammarTree.START, false));
-        //push the
-        // starting
-        // symbol
+    /**
+     * this function reads tokens from a cursor and uses the LL1 parsing
+     * techniques to parse them while they are being produced. It works the
+     * same way as {@link #checkGrammar(TokenStream, CompilerContext)} but
+     * the tokens don't need to be all available before the parsing starts.
+     * The abstract syntax tree is built in the arena of the context, the
+     * arena is reset before the parsing starts.
+     * @param input the cursor providing the tokens
+     * @param context the compilation of the tokens, the table itself isn't
+     *                modified so many compilations can use it at once.
+     * @return the TAC of the input tokens that corresponds to the
+     * language specified grammar, encoded as quadruples.
+     * @throws TokenDoesNotExistException if during the parsing process it
+     * encounters a token that isn't in the token database
+     * @throws IncorrectGrammarException if the grammar in the input tokens
+     * doesn't match the grammar defind by the language specification.
+     * @throws AnalyzerExceptions if while generating the TAC there was a
+     * problem, or if the cursor found a lexical error.
+     */
+    public Quadruples checkGrammar(TokenCursor input, CompilerContext context) throws TokenDoesNotExistException, IncorrectGrammarException, AnalyzerExceptions {
+
+
+        CompileMetrics metrics = context.getMetrics();
+        SyntaxTreeBuilder tree;
+        int tokens;
+        // the phases end even if they throw, so the metrics of a failed
+        // compilation only have closed phases
+        metrics.begin(CompileMetrics.Phase.PARSING);
+        try {
+            tree = new SyntaxTreeBuilder(context.getTreeArena(), symbolNodes,
+                    startSymbol);
+            tokens = parse(input, tree);
+        } finally {
+            metrics.end(CompileMetrics.Phase.PARSING);
+        }
+        metrics.add(CompileMetrics.Counter.TOKENS, tokens);
+        metrics.add(CompileMetrics.Counter.TREE_NODES,
+                context.getTreeArena().size());
+        TACGenerator tac;
+        metrics.begin(CompileMetrics.Phase.TAC_GENERATION);
+        try {
+            tac = new TACGenerator(tree.getTree(), context);
+        } finally {
+            metrics.end(CompileMetrics.Phase.TAC_GENERATION);
+        }
+        metrics.add(CompileMetrics.Counter.TACS, tac.getQuadruples().size());
+        metrics.add(CompileMetrics.Counter.SYMBOLS,
+                context.getSymbolTable().table.size());
+        return tac.getQuadruples();
+    }
+
+    /**
+     * this function matches the tokens of a cursor against the parsing
+     * table and builds their abstract syntax tree.
+     * @param input the cursor providing the tokens.
+     * @param tree the builder of the abstract syntax tree.
+     * @return the number of tokens matched.
+     * @throws TokenDoesNotExistException if a token isn't in the token
+     * database.
+     * @throws IncorrectGrammarException if the tokens don't match the
+     * grammar.
+     * @throws AnalyzerExceptions if the cursor found a lexical error.
+     */
+    private int parse(TokenCursor input, SyntaxTreeBuilder tree) throws TokenDoesNotExistException, IncorrectGrammarException, AnalyzerExceptions {
+        int tokens = 0;
+        //grammar symbols waiting to be matched, the top is at top - 1
+        int[] stack = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        stack[top++] = startSymbol; //push the starting symbol
 
-        int i = 0;
-        ArrayList<GrammarNode> aux = new ArrayList<>();
         // start matching tokens from the parsing table to the input
-        while (i < input.size() && !stack.isEmpty()) {
-            if (stack.peek() != null) {
-                if (stack.peek().isTerminal()) {
-                    assert stack.peek() != null;
-                    if (stack.peek().getTerminal().getId() == input.get(i).getId()) { // Correct grammar
-                        i++;
-                        stack.pop();
-                        if (stack.peek() != null){
-                            parsingTree.moveToParent();
-                            assert stack.peek() != null;
-                            while(!parsingTree.moveToChild(stack.peek())){
-                                parsingTree.moveToParent();
-                                if(parsingTree.isOnRoot()){
-                                    break;
-                                }
-                            }
-                        }
-                    } else
-                        throw new IncorrectGrammarException("Expected " + stack.peek().getTerminal().getName()  + " Got "+ input.get(i).getName());
+        while (input.fill(0) && top > 0) {
+            int symbol = stack[top - 1];
+            if (symbol >= reduceMarker) {
+                // all the symbols of a production were matched
+                top--;
+                tree.reduce();
+            } else if (symbol < terminals) {
+                if (symbol == input.getId(0)) { // Correct grammar
+                    if (symbol == Token.SYMBOLS || symbol == Token.CONSTANTS) {
+                        tree.leaf(symbol, input.getExternalId(0));
+                    } else {
+                        tree.leaf(symbol, -1);
+                    }
+                    input.advance();
+                    tokens++;
+                    top--;
+                } else
+                    throw new IncorrectGrammarException("Expected " + TokenDatabase.getName(symbol) + " Got "+ input.getName(0)
+                            + " - \nLine " + input.getLine(0) + ", column " + input.getColumn(0));
+            } else {
+                int row = symbol - terminals;
+                int production = parsingTable[row][input.getId(0)];
+                if (production == ERROR){
+                    throw new IncorrectGrammarException("Expected "+ nonTerminals.get(row) +" but found " + input.getName(0)
+                            + " - \nLine " + input.getLine(0) + ", column " + input.getColumn(0));
+                } else if (production == EPSILON){
+                    top--; //null element, it has no node in the tree
                 } else {
-
-                    assert stack.peek() != null;
-                    if (parsingTable.get(stack.peek().getNonTerminalID()).get(input.get(i).getId()) != null){
-                        if(parsingTable.get(stack.peek().getNonTerminalID())
-                                .get(input.get(i).getId()).size() > 0 &&
-                                parsingTable.get(stack.peek().getNonTerminalID())
-                                .get(input.get(i).getId())
-                                .get(0).isTerminal() &&
-                                parsingTable.get(stack.peek().getNonTerminalID())
-                                        .get(input.get(i).getId())
-                                        .get(0).getTerminal().getId() == Token.EPSILON){
-                            stack.pop(); //null element
-                            if (stack.peek() != null){
-                                parsingTree.moveToParent();
-                                assert stack.peek() != null;
-                                while(!parsingTree.moveToChild(stack.peek())){
-                                    parsingTree.moveToParent();
-                                    if(parsingTree.isOnRoot()){
-                                        break;
-                                    }
-                                }
-                            }
-                        }else{
-                            //add prodcution to the stack
-                            aux = parsingTable
-                                    .get(stack.peek().getNonTerminalID())
-                                    .get(input.get(i).getId());
-                            stack.pop();
-                            assert stack.peek() != null;
-
-                            ArrayList<GrammarNode> a = new ArrayList<>();
-                            for (GrammarNode n :
-                                    aux) {
-                                if (n.isTerminal() &&
-                                    ((n.getTerminal().getId() == Token.SYMBOLS)
-                                    || (n.getTerminal().getId() == Token.CONSTANTS))){
-                                    for (int j = i; j < input.size(); j++) {
-                                        if(input.get(j).getId() == n.getTerminal().getId()
-                                            && input.get(j).getExternalId() != -1){
-                                            a.add(new GrammarNode
-                                                    (new Token(n.getTerminal().getId(),
-                                                            input.get(j).getExternalId())));
-                                            input.get(j).addExternalId(-1);
-                                            break;
-                                        }
-                                    }
-
-                                }else{
-                                    a.add(n);
-                                }
-                            }
-                            parsingTree.addNodesToCurrent(a);
-                            stack.addAll(0,aux);
-                            while(!parsingTree.moveToChild(stack.peek())){
-                                parsingTree.moveToParent();
-                                if(parsingTree.isOnRoot()){
-                                    break;
-                                }
-                            }
-                        }
-                    }else{
-                        throw new IncorrectGrammarException("Expected "+ stack.peek().getNonTerminalID() +" but found " + input.get(i).getName());
+                    //add prodcution to the stack
+                    int[] rule = productionSymbols[production];
+                    top--;
+                    if (top + rule.length + 1 > stack.length) {
+                        stack = Arrays.copyOf(stack,
+                                Math.max(stack.length * 2, top + rule.length + 1));
+                    }
+                    if (!transparent[row]) {
+                        tree.open(symbol);
+                        stack[top++] = reduceMarker + row;
+                    }
+                    for (int i = rule.length - 1; i >= 0; i--) {
+                        stack[top++] = rule[i];
                     }
                 }
-
-
             }
         }
-        if (i == input.size() && stack.isEmpty()){
-            TACGenerator tac = new TACGenerator(parsingTree);
-            return tac.getTAC();
+        // the last non-terminals may only be waiting to be reduced
+        while (top > 0 && stack[top - 1] >= reduceMarker) {
+            top--;
+            tree.reduce();
         }
-        else{
+        if (input.fill(0) || top != 0) {
             throw new IncorrectGrammarException("Stack not empty, but we're at the end of the input");
-
         }
-    }   
+        return tokens;
+    }
 }
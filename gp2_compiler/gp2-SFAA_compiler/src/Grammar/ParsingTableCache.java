@@ -0,0 +1,133 @@
+package Grammar;
+
+import Terminals.TokenDatabase;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * this class stores a finished parsing table in a binary file, so the next
+ * executions of the compiler can load it instead of parsing the grammar and
+ * computing the first and follow sets again.
+ *
+ * the file starts with a hash of the grammar and token files, if any of
+ * those files changes the cached table is ignored and built again.
+ */
+public class ParsingTableCache {
+
+    //---------------- attributes -----------------//
+
+    public static final String CACHE_FILE = "Resources/grammar.cache";
+
+    /* must be increased every time the format of the cache changes */
+    private static final int FORMAT_VERSION = 3;
+    private static final int MAGIC = 0x53464141; // "SFAA"
+
+    //---------------- methods -----------------//
+
+    /**
+     * interface used to write the content of the table into the cache.
+     */
+    public interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * calculates the hash of the files the parsing table is built from.
+     * @return the SHA-256 hash of the grammar and token files.
+     * @throws IOException if any of the files couldn't be read.
+     */
+    public static byte[] grammarHash() throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Files.readAllBytes(Path.of(GrammarTree.GRAMMAR_FILE)));
+            digest.update(Files.readAllBytes(Path.of(TokenDatabase.TOKEN_FILE)));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * opens the cache file if it was generated from the same grammar.
+     * @param hash the hash of the current grammar.
+     * @return a stream positioned at the beginning of the table data, or
+     * null if there is no valid cache.
+     */
+    public static DataInputStream open(byte[] hash) {
+        File file = new File(CACHE_FILE);
+        if (!file.isFile()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                in.close();
+                return null;
+            }
+            byte[] cachedHash = new byte[in.readInt()];
+            in.readFully(cachedHash);
+            if (!Arrays.equals(hash, cachedHash)) {
+                in.close();
+                return null;
+            }
+            return in;
+        } catch (IOException e) {
+            try {
+                if (in != null) in.close();
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * writes the table into the cache file. The file is written to a
+     * temporary file first and then moved, so another compiler reading the
+     * cache never sees a half written file.
+     * @param hash the hash of the grammar the table was built from.
+     * @param writer writes the content of the table.
+     * @throws IOException if the cache file couldn't be written.
+     */
+    public static void save(byte[] hash, Writer writer) throws IOException {
+        File file = new File(CACHE_FILE);
+        File temp = File.createTempFile("grammar", ".tmp",
+                file.getAbsoluteFile().getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(hash.length);
+                out.write(hash);
+                writer.write(out);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            // nothing is left behind if the table couldn't be written or
+            // moved, after a successful move the temporary file is gone
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+}
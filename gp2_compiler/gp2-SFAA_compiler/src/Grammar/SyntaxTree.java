@@ -0,0 +1,191 @@
+package Grammar;
+
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.TokenDoesNotExistException;
+import Terminals.Token;
+import Tree.TreeArena;
+
+/**
+ * this class is a cursor over an abstract syntax tree stored in a
+ * {@link TreeArena}. The cursor moves by the position of the children,
+ * and the nodes are only turned into grammar nodes when their value is
+ * requested.
+ *
+ * the symbols of the arena are the grammar symbols of the parsing table
+ * (the token id for terminals), the grammar node of each symbol is taken from
+ * the table, only the tokens with an external id create a new grammar node.
+ */
+public class SyntaxTree {
+
+    //---------------- attributes -----------------//
+
+    private final TreeArena arena;
+    private final GrammarNode[] symbolNodes;
+    private final int root;
+    private int current;
+
+    //last child found by position, the statements of a block are read one
+    //after the other so the next one is found without walking the list
+    private int cachedParent = TreeArena.NONE;
+    private int cachedPosition;
+    private int cachedChild;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor of the cursor.
+     * @param arena the arena that contains the tree.
+     * @param symbolNodes the grammar node of each symbol of the arena.
+     * @param root the node used as the root of the cursor.
+     */
+    public SyntaxTree(TreeArena arena, GrammarNode[] symbolNodes, int root) {
+        this.arena = arena;
+        this.symbolNodes = symbolNodes;
+        this.root = root;
+        this.current = root;
+    }
+
+    /**
+     * @return true if the current node is the root, and False otherwise.
+     */
+    public boolean isOnRoot() {
+        return current == root;
+    }
+
+    /**
+     * moves the current node to one of its children.
+     * @param position the position of the child.
+     * @return true if the child exists, false otherwise.
+     */
+    public boolean moveToChild(int position) {
+        if (position < 0 || position >= arena.getNumberOfChildren(current)) {
+            return false;
+        }
+        current = child(current, position);
+        return true;
+    }
+
+    /**
+     * move the current node to its parent, the root of the arena stays in
+     * the same place.
+     */
+    public void moveToParent() {
+        int parent = arena.getParent(current);
+        if (parent != TreeArena.NONE) {
+            current = parent;
+        }
+    }
+
+    /**
+     * move the current node to the root of the tree.
+     */
+    public void moveToRoot() {
+        current = root;
+    }
+
+    public SyntaxTree getCurrentBranch() {
+        return new SyntaxTree(arena, symbolNodes, current);
+    }
+
+    public int getNumberOfChildren() {
+        return arena.getNumberOfChildren(current);
+    }
+
+    public GrammarNode getCurrentValue() throws TokenDoesNotExistException {
+        return value(current);
+    }
+
+    public GrammarNode getChild(int index) throws TokenDoesNotExistException {
+        return value(child(current, index));
+    }
+
+    public SyntaxTree getChildBranch(int i) {
+        return new SyntaxTree(arena, symbolNodes, child(current, i));
+    }
+
+    /**
+     * this method goes through the branch under the current node, entering
+     * each node before its children and exiting it after them. The walk
+     * doesn't use recursion, it follows the first child, next sibling and
+     * parent links of the arena, so the depth of the tree isn't limited by
+     * the size of the thread stack. The cursor returns to the current node
+     * when the walk ends.
+     * @param visitor the pass to be applied to each node.
+     * @throws TokenDoesNotExistException if the visitor finds an invalid
+     * token.
+     * @throws AnalyzerExceptions if the visitor detects a semantic error.
+     */
+    public void walk(SyntaxTreeVisitor visitor)
+            throws TokenDoesNotExistException, AnalyzerExceptions {
+        int start = current;
+        int node = start;
+        while (true) {
+            current = node;
+            int child = visitor.enter(this) ? arena.getFirstChild(node)
+                    : TreeArena.NONE;
+            if (child != TreeArena.NONE) {
+                node = child;
+                continue;
+            }
+            // exit the nodes until one of them has a next sibling
+            while (true) {
+                current = node;
+                visitor.exit(this);
+                if (node == start) {
+                    current = start;
+                    return;
+                }
+                int next = arena.getNextSibling(node);
+                if (next != TreeArena.NONE) {
+                    node = next;
+                    break;
+                }
+                node = arena.getParent(node);
+            }
+        }
+    }
+
+    /**
+     * this method finds a child of a node by its position.
+     * @param parent the parent node.
+     * @param position the position of the child.
+     * @return the child in that position.
+     */
+    private int child(int parent, int position) {
+        if (position < 0 || position >= arena.getNumberOfChildren(parent)) {
+            throw new IndexOutOfBoundsException("Index " + position
+                    + " out of bounds for length "
+                    + arena.getNumberOfChildren(parent));
+        }
+        int node;
+        int i;
+        if (parent == cachedParent && position >= cachedPosition) {
+            node = cachedChild;
+            i = cachedPosition;
+        } else {
+            node = arena.getFirstChild(parent);
+            i = 0;
+        }
+        for (; i < position; i++) {
+            node = arena.getNextSibling(node);
+        }
+        cachedParent = parent;
+        cachedPosition = position;
+        cachedChild = node;
+        return node;
+    }
+
+    /**
+     * this method creates the grammar node of a node of the arena.
+     * @param node the node.
+     * @return the grammar node with the value of the node.
+     * @throws TokenDoesNotExistException if the node has an invalid token.
+     */
+    private GrammarNode value(int node) throws TokenDoesNotExistException {
+        int symbol = arena.getSymbol(node);
+        if (arena.isTerminal(node) && arena.getExternalId(node) != -1) {
+            return new GrammarNode(new Token(symbol, arena.getExternalId(node)));
+        }
+        return symbolNodes[symbol];
+    }
+}
@@ -0,0 +1,211 @@
+package Grammar;
+
+import Terminals.Token;
+import Tree.TreeArena;
+
+import java.util.Arrays;
+
+/**
+ * this class builds the abstract syntax tree while the parser is running,
+ * instead of building the whole grammar tree and rewriting it afterwards.
+ *
+ * every time the parser expands a non-terminal it opens a node, and when
+ * all the symbols of the production were matched the node is reduced: the
+ * first terminal among its children takes the place of the non-terminal and
+ * the children of that terminal are moved up. Non-terminals that end up
+ * without children are dropped, the list non-terminals (statements,
+ * statement and aux_statements) never get a node and parentheses are
+ * replaced by the expression they contain.
+ *
+ * the nodes are stored in a {@link TreeArena}, the symbols are the grammar
+ * symbols of the parsing table.
+ */
+public class SyntaxTreeBuilder {
+
+    //---------------- attributes -----------------//
+
+    private static final int INITIAL_DEPTH = 64;
+
+    private final TreeArena arena;
+    private final GrammarNode[] symbolNodes;
+    //open nodes and the last child of each one
+    private int[] open;
+    private int[] lastChild;
+    private int depth;
+    //children of the node being closed
+    private int[] result;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor of the builder.
+     * @param arena the arena where the nodes are created, it's reset first.
+     * @param symbolNodes the grammar node of each grammar symbol.
+     * @param start the starting non-terminal of the grammar, it will be the
+     *              root of the tree.
+     */
+    public SyntaxTreeBuilder(TreeArena arena, GrammarNode[] symbolNodes,
+                             int start) {
+        this.arena = arena;
+        this.symbolNodes = symbolNodes;
+        this.open = new int[INITIAL_DEPTH];
+        this.lastChild = new int[INITIAL_DEPTH];
+        this.depth = 0;
+        this.result = new int[INITIAL_DEPTH];
+        arena.reset();
+        open(start);
+    }
+
+    /**
+     * checks if a non-terminal is only used to build lists of statements,
+     * these non-terminals don't get a node in the tree, their children are
+     * added to the node that contains them.
+     * @param nonTerminalId the id of the non-terminal.
+     * @return true if the non-terminal doesn't get a node, false otherwise.
+     */
+    public static boolean isTransparent(String nonTerminalId) {
+        return nonTerminalId.equals("statements")
+                || nonTerminalId.equals("statement")
+                || nonTerminalId.equals("aux_statements");
+    }
+
+    /**
+     * opens a node for a non-terminal that is being expanded, the next
+     * nodes will be added as its children until it's reduced.
+     * @param nonTerminal the grammar symbol of the non-terminal.
+     */
+    public void open(int nonTerminal) {
+        if (depth == open.length) {
+            open = Arrays.copyOf(open, open.length * 2);
+            lastChild = Arrays.copyOf(lastChild, lastChild.length * 2);
+        }
+        open[depth] = arena.add(TreeArena.NON_TERMINAL, nonTerminal, -1);
+        lastChild[depth] = TreeArena.NONE;
+        depth++;
+    }
+
+    /**
+     * adds a matched terminal to the node that is currently open.
+     * @param terminal the id of the matched token.
+     * @param externalId the external id of the token (-1 if it has none).
+     */
+    public void leaf(int terminal, int externalId) {
+        append(arena.add(TreeArena.TERMINAL, terminal, externalId));
+    }
+
+    /**
+     * closes the node that is currently open and adds it to its parent.
+     */
+    public void reduce() {
+        int node = close();
+        depth--;
+        if (node != TreeArena.NONE) {
+            append(node);
+        }
+    }
+
+    /**
+     * closes the root of the tree, the builder can't be used after this.
+     * @return the abstract syntax tree.
+     */
+    public SyntaxTree getTree() {
+        close();
+        return new SyntaxTree(arena, symbolNodes, open[0]);
+    }
+
+    /**
+     * adds a node to the children of the node that is currently open.
+     * @param node the node to be added.
+     */
+    private void append(int node) {
+        arena.addChild(open[depth - 1], lastChild[depth - 1], node);
+        lastChild[depth - 1] = node;
+    }
+
+    /**
+     * this method applies the semantic action of the node that is currently
+     * open: the first terminal child replaces the non-terminal, and the
+     * children of that terminal are placed in its position.
+     * @return the resulting node, or NONE if it has no value in the
+     * abstract syntax tree.
+     */
+    private int close() {
+        int node = open[depth - 1];
+        if (arena.getNumberOfChildren(node) == 0) {
+            return TreeArena.NONE;
+        }
+        int size = 0;
+        for (int child = arena.getFirstChild(node); child != TreeArena.NONE;
+             child = arena.getNextSibling(child)) {
+            if (!arena.isTerminal(node) && arena.isTerminal(child)) {
+                arena.copyValue(node, child);
+                size = addChildren(child, size);
+            } else {
+                size = add(child, size);
+            }
+        }
+        if (arena.isTerminal(node)
+                && arena.getSymbol(node) == Token.OPENING_PAR && size > 0) {
+            // ( expression ) is replaced by the expression
+            size = removeFirst(size, Token.CLOSING_PAR);
+            if (size > 0) {
+                int expression = result[0];
+                int rest = size - 1;
+                int[] tail = Arrays.copyOfRange(result, 1, size);
+                arena.copyValue(node, expression);
+                size = addChildren(expression, 0);
+                for (int i = 0; i < rest; i++) {
+                    size = add(tail[i], size);
+                }
+            }
+        }
+        arena.setChildren(node, result, size);
+        return node;
+    }
+
+    /**
+     * adds a node to the children of the node being closed.
+     * @param node the node to be added.
+     * @param size the number of children already added.
+     * @return the new number of children.
+     */
+    private int add(int node, int size) {
+        if (size == result.length) {
+            result = Arrays.copyOf(result, result.length * 2);
+        }
+        result[size] = node;
+        return size + 1;
+    }
+
+    /**
+     * adds the children of a node to the children of the node being closed.
+     * @param node the node whose children are added.
+     * @param size the number of children already added.
+     * @return the new number of children.
+     */
+    private int addChildren(int node, int size) {
+        for (int child = arena.getFirstChild(node); child != TreeArena.NONE;
+             child = arena.getNextSibling(child)) {
+            size = add(child, size);
+        }
+        return size;
+    }
+
+    /**
+     * removes the first child of the node being closed that contains a given
+     * terminal.
+     * @param size the number of children.
+     * @param terminal the id of the terminal.
+     * @return the new number of children.
+     */
+    private int removeFirst(int size, int terminal) {
+        for (int i = 0; i < size; i++) {
+            if (arena.isTerminal(result[i])
+                    && arena.getSymbol(result[i]) == terminal) {
+                System.arraycopy(result, i + 1, result, i, size - i - 1);
+                return size - 1;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,32 @@
+package Grammar;
+
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.TokenDoesNotExistException;
+
+/**
+ * an interface for the passes that go through a branch of the abstract
+ * syntax tree (see {@link SyntaxTree#walk(SyntaxTreeVisitor)}). Every node
+ * is entered before its children (pre-order) and exited after them
+ * (post-order). The cursor given to the methods is placed on the visited
+ * node, moving it doesn't change the order of the walk.
+ */
+public interface SyntaxTreeVisitor {
+
+    /**
+     * called before the children of a node are visited.
+     * @param node a cursor placed on the node.
+     * @return true if the children of the node must be visited, false to
+     * skip them.
+     * @throws TokenDoesNotExistException if an invalid token is found.
+     * @throws AnalyzerExceptions if a semantic error is detected.
+     */
+    boolean enter(SyntaxTree node) throws TokenDoesNotExistException, AnalyzerExceptions;
+
+    /**
+     * called after the children of a node were visited (or skipped).
+     * @param node a cursor placed on the node.
+     * @throws TokenDoesNotExistException if an invalid token is found.
+     * @throws AnalyzerExceptions if a semantic error is detected.
+     */
+    void exit(SyntaxTree node) throws TokenDoesNotExistException, AnalyzerExceptions;
+}
@@ -0,0 +1,88 @@
+package Grammar;
+
+import Terminals.TokenDatabase;
+
+/**
+ * this class describes an LL(1) conflict found while building the parsing
+ * table: two productions of the same non-terminal that would be chosen
+ * with the same lookahead token.
+ */
+public class TableConflict {
+
+    //---------------- attributes -----------------//
+
+    private final String nonTerminalId;
+    private final int terminal;
+    //null means the epsilon production
+    private final GrammarNode[] kept;
+    private final GrammarNode[] rejected;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor of the class.
+     * @param nonTerminalId the non-terminal whose row has the conflict.
+     * @param terminal the id of the lookahead token.
+     * @param kept the production that stayed in the table (null for the
+     *             epsilon production).
+     * @param rejected the production that was discarded (null for the
+     *                 epsilon production).
+     */
+    public TableConflict(String nonTerminalId, int terminal, GrammarNode[] kept,
+                         GrammarNode[] rejected) {
+        this.nonTerminalId = nonTerminalId;
+        this.terminal = terminal;
+        this.kept = kept;
+        this.rejected = rejected;
+    }
+
+    public String getNonTerminalID() {
+        return nonTerminalId;
+    }
+
+    public int getTerminal() {
+        return terminal;
+    }
+
+    public GrammarNode[] getKept() {
+        return kept;
+    }
+
+    public GrammarNode[] getRejected() {
+        return rejected;
+    }
+
+    /**
+     * this method writes a production the same way it would be written in
+     * the grammar.
+     * @param production the production (null for the epsilon production).
+     * @return the production as a string.
+     */
+    private static String productionToString(GrammarNode[] production) {
+        if (production == null) {
+            return "e";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (GrammarNode node : production) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            if (!node.isTerminal()) {
+                sb.append('<').append(node.getNonTerminalID()).append('>');
+            } else if (node.getTerminal() == null) {
+                sb.append('e');
+            } else {
+                sb.append(node.getTerminal().getName());
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "LL(1) conflict in <" + nonTerminalId + "> on "
+                + TokenDatabase.getName(terminal) + ": kept "
+                + productionToString(kept) + ", rejected "
+                + productionToString(rejected);
+    }
+}
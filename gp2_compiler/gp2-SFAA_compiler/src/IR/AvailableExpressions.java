@@ -0,0 +1,276 @@
+package IR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * this class finds the expressions that are available at the start and at
+ * the end of every block. An expression is an operation with its two
+ * values (see {@link Opcode#isExpression()}), it is available at a point
+ * if every path to the point computes it and then doesn't write any of
+ * its values. The values of the commutative operations are sorted, so
+ * a + b and b + a are the same expression.
+ *
+ * a {@link Opcode#CALL} may write any symbol, so it kills every
+ * expression that reads a symbol.
+ */
+public class AvailableExpressions extends DataflowAnalysis {
+
+    //---------------- attributes -----------------//
+
+    //expression computed by each quadruple, -1 if it isn't an expression
+    private final int[] expressionOf;
+    //the first quadruple that computes each expression
+    private final int[] representative;
+    //expressions that read each symbol
+    private final int[][] expressionsOfSymbol;
+    //expressions that read at least one symbol
+    private final long[] symbolic;
+    //last write of each symbol and last computation of each expression in
+    //the quadruples being transferred
+    private final int[] lastWrite;
+    private final int[] writtenSymbols;
+    private final int[] lastComputation;
+    private final int[] computedExpressions;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, it solves the analysis.
+     * @param graph the graph being analyzed.
+     */
+    public AvailableExpressions(ControlFlowGraph graph) {
+        this(graph, new ExpressionNumbering(graph.getQuadruples()));
+    }
+
+    private AvailableExpressions(ControlFlowGraph graph,
+                                 ExpressionNumbering numbering) {
+        super(graph, numbering.representatives.size(), Direction.FORWARD,
+                Meet.INTERSECTION);
+        Quadruples quadruples = graph.getQuadruples();
+        this.expressionOf = numbering.expressionOf;
+        this.representative = new int[bits];
+        for (int e = 0; e < bits; e++) {
+            representative[e] = numbering.representatives.get(e);
+        }
+        int symbols = quadruples.getSymbolLimit();
+        int[] perSymbol = new int[symbols];
+        this.symbolic = new long[words];
+        for (int e = 0; e < bits; e++) {
+            for (int symbol : readSymbols(representative[e])) {
+                perSymbol[symbol]++;
+                add(symbolic, e);
+            }
+        }
+        this.expressionsOfSymbol = new int[symbols][];
+        for (int s = 0; s < symbols; s++) {
+            expressionsOfSymbol[s] = new int[perSymbol[s]];
+            perSymbol[s] = 0;
+        }
+        for (int e = 0; e < bits; e++) {
+            for (int symbol : readSymbols(representative[e])) {
+                expressionsOfSymbol[symbol][perSymbol[symbol]++] = e;
+            }
+        }
+
+        this.lastWrite = new int[symbols];
+        this.writtenSymbols = new int[symbols];
+        this.lastComputation = new int[bits];
+        this.computedExpressions = new int[bits];
+        Arrays.fill(lastWrite, -1);
+        Arrays.fill(lastComputation, -1);
+        for (int b = 0; b < graph.size(); b++) {
+            transfer(graph.getStart(b), graph.getEnd(b), gen[b], kill[b]);
+        }
+        solve();
+    }
+
+    /**
+     * @param quadruple the index of an expression.
+     * @return the symbols read by the expression, without repetitions.
+     */
+    private int[] readSymbols(int quadruple) {
+        Quadruples quadruples = graph.getQuadruples();
+        int value1 = quadruples.getValue1(quadruple);
+        int value2 = quadruples.getValue2(quadruple);
+        boolean first = Operand.isSymbol(value1);
+        boolean second = Operand.isSymbol(value2)
+                && (!first || Operand.value(value1) != Operand.value(value2));
+        if (first && second) {
+            return new int[]{Operand.value(value1), Operand.value(value2)};
+        } else if (first) {
+            return new int[]{Operand.value(value1)};
+        } else if (second) {
+            return new int[]{Operand.value(value2)};
+        }
+        return new int[0];
+    }
+
+    /**
+     * this method changes a set of available expressions with the
+     * quadruples of a part of a block. The expressions of a symbol written
+     * in that part are killed once, then the expressions computed after the
+     * last write of their values are added.
+     * @param from the index of the first quadruple.
+     * @param to the index after the last quadruple.
+     * @param available the expressions available before the first
+     *                  quadruple, they become the ones after the last one.
+     * @param killed if not null, the expressions killed by the quadruples
+     *               are added to it.
+     */
+    private void transfer(int from, int to, long[] available, long[] killed) {
+        Quadruples quadruples = graph.getQuadruples();
+        int written = 0;
+        int computed = 0;
+        int lastCall = -1;
+        for (int i = from; i < to; i++) {
+            if (quadruples.getOpcode(i) == Opcode.CALL) {
+                lastCall = i;
+            }
+            int e = expressionOf[i];
+            if (e != -1) {
+                if (lastComputation[e] == -1) {
+                    computedExpressions[computed++] = e;
+                }
+                lastComputation[e] = i;
+            }
+            int symbol = quadruples.getDefinedSymbol(i);
+            if (symbol != -1 && symbol < lastWrite.length) {
+                if (lastWrite[symbol] == -1) {
+                    writtenSymbols[written++] = symbol;
+                }
+                lastWrite[symbol] = i;
+            }
+        }
+        if (lastCall != -1) {
+            for (int w = 0; w < words; w++) {
+                available[w] &= ~symbolic[w];
+                if (killed != null) {
+                    killed[w] |= symbolic[w];
+                }
+            }
+        }
+        for (int w = 0; w < written; w++) {
+            for (int other : expressionsOfSymbol[writtenSymbols[w]]) {
+                remove(available, other);
+                if (killed != null) {
+                    add(killed, other);
+                }
+            }
+        }
+        for (int c = 0; c < computed; c++) {
+            int e = computedExpressions[c];
+            int at = lastComputation[e];
+            //a quadruple writes its result after reading its values
+            boolean survives = at > lastCall || !contains(symbolic, e);
+            for (int symbol : readSymbols(representative[e])) {
+                survives &= lastWrite[symbol] < at;
+            }
+            if (survives) {
+                add(available, e);
+            }
+            lastComputation[e] = -1;
+        }
+        for (int w = 0; w < written; w++) {
+            lastWrite[writtenSymbols[w]] = -1;
+        }
+    }
+
+    /**
+     * @param quadruple the index of a quadruple.
+     * @return the expressions available before the quadruple runs.
+     */
+    public long[] getAvailable(int quadruple) {
+        int b = graph.getBlockOf(quadruple);
+        long[] available = Arrays.copyOf(getIn(b), words);
+        transfer(graph.getStart(b), quadruple, available, null);
+        return available;
+    }
+
+    /**
+     * @return the number of different expressions.
+     */
+    public int getExpressionCount() {
+        return bits;
+    }
+
+    /**
+     * @param quadruple the index of a quadruple.
+     * @return the expression computed by the quadruple, or -1 if it isn't
+     * an expression.
+     */
+    public int getExpression(int quadruple) {
+        return expressionOf[quadruple];
+    }
+
+    /**
+     * @param expression an expression.
+     * @return the first quadruple that computes the expression.
+     */
+    public int getRepresentative(int expression) {
+        return representative[expression];
+    }
+
+    /**
+     * this class gives the same number to the quadruples that compute the
+     * same expression.
+     */
+    private static class ExpressionNumbering {
+
+        private final int[] expressionOf;
+        private final ArrayList<Integer> representatives = new ArrayList<>();
+
+        ExpressionNumbering(Quadruples quadruples) {
+            expressionOf = new int[quadruples.size()];
+            HashMap<Expression, Integer> numbers = new HashMap<>();
+            for (int i = 0; i < expressionOf.length; i++) {
+                expressionOf[i] = -1;
+                if (!quadruples.getOpcode(i).isExpression()) {
+                    continue;
+                }
+                Expression key = new Expression(quadruples.getOpcode(i),
+                        quadruples.getValue1(i), quadruples.getValue2(i));
+                Integer number = numbers.get(key);
+                if (number == null) {
+                    number = representatives.size();
+                    numbers.put(key, number);
+                    representatives.add(i);
+                }
+                expressionOf[i] = number;
+            }
+        }
+    }
+
+    /**
+     * an operation with its two values, used as the key of the expressions.
+     */
+    static final class Expression {
+
+        private final Opcode opcode;
+        private final int value1;
+        private final int value2;
+
+        Expression(Opcode opcode, int value1, int value2) {
+            boolean swap = opcode.isCommutative() && value2 < value1;
+            this.opcode = opcode;
+            this.value1 = swap ? value2 : value1;
+            this.value2 = swap ? value1 : value2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Expression)) {
+                return false;
+            }
+            Expression other = (Expression) o;
+            return opcode == other.opcode && value1 == other.value1
+                    && value2 == other.value2;
+        }
+
+        @Override
+        public int hashCode() {
+            return (opcode.ordinal() * 31 + value1) * 31 + value2;
+        }
+    }
+}
@@ -0,0 +1,619 @@
+package IR;
+
+import Compiler.CompilerContext;
+import Terminals.Constant;
+import Terminals.ConstantTable;
+import Terminals.Symbol;
+import Terminals.Token;
+import Terminals.Variable;
+import Terminals.Exception.AnalyzerExceptions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * this class propagates the constants of a program and folds the
+ * operations whose values are known, with the sparse conditional constant
+ * propagation of Wegman and Zadeck. The values flow from each definition
+ * to the uses it reaches (see {@link ReachingDefinitions}), and a block is
+ * only analyzed once an executable edge reaches it, so the branches that
+ * are never taken don't make their symbols unknown.
+ *
+ * each definition has one of three values: not known yet, a constant, or
+ * unknown. The symbols start with the value they have in the .data
+ * section (0 if they aren't initialized), and are unknown at the entry of
+ * a function and after a call. Only int values are folded.
+ *
+ * once the values are found the quadruples are rewritten:
+ *
+ *      a definition with a constant value becomes a copy of the constant
+ *      a symbol with a constant value is replaced by the constant where
+ *          the assembly can use an immediate value
+ *      an IF with a constant condition becomes a GOTO or is removed
+ *      the quadruples of the blocks that are never reached are removed
+ *      the temporaries that aren't read any more are removed
+ *
+ * the new constants are added to the constant table of the compilation.
+ */
+public class ConstantPropagation {
+
+    //---------------- attributes -----------------//
+
+    private static final int UNDEFINED = 0;
+    private static final int CONSTANT = 1;
+    private static final int UNKNOWN = 2;
+
+    private final Quadruples quadruples;
+    private final CompilerContext context;
+    private final ControlFlowGraph graph;
+    private final ReachingDefinitions reaching;
+
+    //lattice value of each definition
+    private final int[] state;
+    private final int[] value;
+    //definitions reaching each value of each quadruple, null for constants
+    private final int[][] value1Definitions;
+    private final int[][] value2Definitions;
+    //quadruples that read each definition
+    private final int[][] users;
+
+    private final boolean[] executable;
+    //executable edges, by block and position in its successors
+    private final boolean[][] executableEdge;
+    private int[] blockWorklist;
+    private int blockCount;
+    private int[] quadrupleWorklist;
+    private boolean[] queued;
+    private int quadrupleCount;
+
+    //the constant found by the last meet or evaluate
+    private int meetValue;
+
+    private final HashMap<Integer, Integer> constantIds = new HashMap<>();
+    private Quadruples result;
+    private int folded;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, it propagates the constants of a program.
+     * @param quadruples the quadruples of the program.
+     * @param context the compilation of the program, the new constants are
+     *                added to its table.
+     * @throws AnalyzerExceptions if a new constant couldn't be created.
+     */
+    public ConstantPropagation(Quadruples quadruples, CompilerContext context)
+            throws AnalyzerExceptions {
+        this.quadruples = quadruples;
+        this.context = context;
+        this.graph = new ControlFlowGraph(quadruples);
+        this.reaching = new ReachingDefinitions(graph);
+        int definitions = reaching.getDefinitionCount();
+        this.state = new int[definitions];
+        this.value = new int[definitions];
+        this.value1Definitions = new int[quadruples.size()][];
+        this.value2Definitions = new int[quadruples.size()][];
+        this.executable = new boolean[graph.size()];
+        this.executableEdge = new boolean[graph.size()][];
+        for (int b = 0; b < graph.size(); b++) {
+            executableEdge[b] = new boolean[graph.getSuccessors(b).length];
+        }
+
+        findUses();
+        this.users = findUsers();
+        initialValues();
+        propagate();
+        this.result = rewrite();
+    }
+
+    /**
+     * this method finds the definitions that reach every symbol read by a
+     * quadruple. The definitions come from the same block if the symbol is
+     * written before in it, or from the start of the block otherwise.
+     */
+    private void findUses() {
+        int symbols = quadruples.getSymbolLimit();
+        //last definition in the block of each symbol, and its quadruple
+        int[] local = new int[symbols];
+        int[] localAt = new int[symbols];
+        Arrays.fill(local, -1);
+        int[] calls = new int[quadruples.size()];
+        int callCount = 0;
+        for (int i = 0; i < quadruples.size(); i++) {
+            if (quadruples.getOpcode(i) == Opcode.CALL) {
+                calls[callCount++] = reaching.getDefinition(i);
+            }
+        }
+        calls = Arrays.copyOf(calls, callCount);
+
+        for (int b = 0; b < graph.size(); b++) {
+            long[] in = reaching.getIn(b);
+            int firstLocalCall = -1;
+            for (int i = graph.getStart(b); i < graph.getEnd(b); i++) {
+                int operand1 = quadruples.getValue1(i);
+                int operand2 = quadruples.getValue2(i);
+                if (Operand.isSymbol(operand1)) {
+                    value1Definitions[i] = reachingUse(Operand.value(operand1),
+                            in, calls, local, localAt, firstLocalCall, i);
+                }
+                if (Operand.isSymbol(operand2)) {
+                    value2Definitions[i] = reachingUse(Operand.value(operand2),
+                            in, calls, local, localAt, firstLocalCall, i);
+                }
+                int defined = quadruples.getDefinedSymbol(i);
+                if (defined != -1) {
+                    local[defined] = reaching.getDefinition(i);
+                    localAt[defined] = i;
+                }
+                if (quadruples.getOpcode(i) == Opcode.CALL
+                        && firstLocalCall == -1) {
+                    firstLocalCall = i;
+                }
+            }
+            for (int i = graph.getStart(b); i < graph.getEnd(b); i++) {
+                int defined = quadruples.getDefinedSymbol(i);
+                if (defined != -1) {
+                    local[defined] = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the definitions of a symbol that reach a quadruple of a
+     * block.
+     */
+    private int[] reachingUse(int symbol, long[] in, int[] calls, int[] local,
+                              int[] localAt, int firstLocalCall, int at) {
+        int[] found = new int[4];
+        int count = 0;
+        if (local[symbol] != -1) {
+            found[count++] = local[symbol];
+        } else {
+            for (int d : reaching.getDefinitionsOf(symbol)) {
+                if (DataflowAnalysis.contains(in, d)) {
+                    found = append(found, count++, d);
+                }
+            }
+            for (int d : calls) {
+                if (DataflowAnalysis.contains(in, d)) {
+                    found = append(found, count++, d);
+                }
+            }
+        }
+        //the calls of the block made after the last write of the symbol
+        if (firstLocalCall != -1) {
+            int from = local[symbol] != -1
+                    ? Math.max(firstLocalCall, localAt[symbol]) : firstLocalCall;
+            for (int i = from; i < at; i++) {
+                if (quadruples.getOpcode(i) == Opcode.CALL) {
+                    found = append(found, count++, reaching.getDefinition(i));
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private static int[] append(int[] array, int position, int element) {
+        if (position == array.length) {
+            array = Arrays.copyOf(array, array.length * 2);
+        }
+        array[position] = element;
+        return array;
+    }
+
+    /**
+     * @return the quadruples that read each definition.
+     */
+    private int[][] findUsers() {
+        int[] count = new int[state.length];
+        for (int i = 0; i < quadruples.size(); i++) {
+            for (int[] uses : new int[][]{value1Definitions[i], value2Definitions[i]}) {
+                if (uses != null) {
+                    for (int d : uses) {
+                        count[d]++;
+                    }
+                }
+            }
+        }
+        int[][] found = new int[state.length][];
+        for (int d = 0; d < state.length; d++) {
+            found[d] = new int[count[d]];
+            count[d] = 0;
+        }
+        for (int i = 0; i < quadruples.size(); i++) {
+            for (int[] uses : new int[][]{value1Definitions[i], value2Definitions[i]}) {
+                if (uses != null) {
+                    for (int d : uses) {
+                        found[d][count[d]++] = i;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * this method gives the initial definitions the values of the .data
+     * section, and makes the values at the entries of the functions
+     * unknown.
+     */
+    private void initialValues() {
+        int symbols = quadruples.getSymbolLimit();
+        for (int s = 0; s < symbols; s++) {
+            int initial = reaching.getInitialDefinition(s);
+            Symbol symbol = context.getSymbolTable().table.get(s);
+            state[initial] = UNKNOWN;
+            if (symbol instanceof Variable && Token.INT.equals(symbol.getType())) {
+                Constant constant = ((Variable) symbol).getValue();
+                state[initial] = CONSTANT;
+                value[initial] = constant == null ? 0 : (int) constant.getValue();
+            }
+            state[reaching.getUnknownDefinition(s)] = UNKNOWN;
+        }
+    }
+
+    /**
+     * this method finds the value of every definition, visiting the blocks
+     * when they become executable and the quadruples when the value of one
+     * of the definitions they read goes down.
+     */
+    private void propagate() {
+        blockWorklist = new int[graph.size()];
+        quadrupleWorklist = new int[quadruples.size()];
+        queued = new boolean[quadruples.size()];
+        for (int entry : graph.getEntries()) {
+            markExecutable(entry);
+        }
+        while (blockCount > 0 || quadrupleCount > 0) {
+            if (blockCount > 0) {
+                int b = blockWorklist[--blockCount];
+                for (int i = graph.getStart(b); i < graph.getEnd(b); i++) {
+                    visit(i);
+                }
+                Opcode last = quadruples.getOpcode(graph.getEnd(b) - 1);
+                if (last != Opcode.IF) {
+                    for (int s = 0; s < executableEdge[b].length; s++) {
+                        markEdge(b, s);
+                    }
+                }
+            } else {
+                int i = quadrupleWorklist[--quadrupleCount];
+                queued[i] = false;
+                if (executable[graph.getBlockOf(i)]) {
+                    visit(i);
+                }
+            }
+        }
+    }
+
+    private void markExecutable(int block) {
+        if (!executable[block]) {
+            executable[block] = true;
+            blockWorklist[blockCount++] = block;
+        }
+    }
+
+    private void markEdge(int block, int successor) {
+        if (!executableEdge[block][successor]) {
+            executableEdge[block][successor] = true;
+            markExecutable(graph.getSuccessors(block)[successor]);
+        }
+    }
+
+    /**
+     * this method evaluates a quadruple of an executable block.
+     * @param i the index of the quadruple.
+     */
+    private void visit(int i) {
+        Opcode opcode = quadruples.getOpcode(i);
+        if (opcode == Opcode.IF) {
+            int b = graph.getBlockOf(i);
+            int[] successors = graph.getSuccessors(b);
+            int condition = meet(value1Definitions[i]);
+            if (condition == UNDEFINED) {
+                return;
+            }
+            int target = graph.getBlockOfLabel(Operand.value(quadruples.getResult(i)));
+            for (int s = 0; s < successors.length; s++) {
+                //the branch is taken when the condition is less than 1
+                boolean taken = successors[s] == target;
+                if (condition == UNKNOWN || successors.length == 1
+                        || taken == (meetValue < 1)) {
+                    markEdge(b, s);
+                }
+            }
+            return;
+        }
+        int d = reaching.getDefinition(i);
+        if (d == -1) {
+            return;
+        }
+        if (opcode == Opcode.CALL) {
+            lower(d, UNKNOWN, 0);
+        } else if (opcode == Opcode.COPY) {
+            int v = evaluate(quadruples.getValue1(i), value1Definitions[i]);
+            lower(d, v, meetValue);
+        } else if (opcode.isExpression() && opcode != Opcode.NOT) {
+            int v1 = evaluate(quadruples.getValue1(i), value1Definitions[i]);
+            int a = meetValue;
+            int v2 = evaluate(quadruples.getValue2(i), value2Definitions[i]);
+            int b = meetValue;
+            if (v1 == UNKNOWN || v2 == UNKNOWN) {
+                lower(d, UNKNOWN, 0);
+            } else if (v1 == CONSTANT && v2 == CONSTANT) {
+                Integer folded = fold(opcode, a, b);
+                lower(d, folded == null ? UNKNOWN : CONSTANT,
+                        folded == null ? 0 : folded);
+            }
+        } else {
+            lower(d, UNKNOWN, 0);
+        }
+    }
+
+    /**
+     * @param operand an operand of a quadruple.
+     * @param definitions the definitions that reach it if it is a symbol.
+     * @return the lattice value of the operand, the constant is left in
+     * {@link #meetValue}.
+     */
+    private int evaluate(int operand, int[] definitions) {
+        if (definitions != null) {
+            return meet(definitions);
+        }
+        if (operand != Operand.NONE && Operand.kind(operand) == Operand.CONSTANT) {
+            Constant constant = context.getConstantTable().table.get(Operand.value(operand));
+            if (Token.INT.equals(constant.getType())) {
+                meetValue = (int) constant.getValue();
+                return CONSTANT;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @param definitions the definitions that reach a use.
+     * @return the meet of their values, the constant is left in
+     * {@link #meetValue}.
+     */
+    private int meet(int[] definitions) {
+        int result = UNDEFINED;
+        for (int d : definitions) {
+            if (state[d] == UNKNOWN) {
+                return UNKNOWN;
+            } else if (state[d] == CONSTANT) {
+                if (result == CONSTANT && meetValue != value[d]) {
+                    return UNKNOWN;
+                }
+                result = CONSTANT;
+                meetValue = value[d];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * this method lowers the value of a definition and queues the
+     * quadruples that read it. The values only go down, so a definition
+     * changes at most twice.
+     */
+    private void lower(int definition, int newState, int newValue) {
+        if (newState <= state[definition]) {
+            return;
+        }
+        state[definition] = newState;
+        value[definition] = newValue;
+        for (int user : users[definition]) {
+            if (!queued[user]) {
+                queued[user] = true;
+                quadrupleWorklist[quadrupleCount++] = user;
+            }
+        }
+    }
+
+    /**
+     * @param opcode an operation.
+     * @param a the first value.
+     * @param b the second value.
+     * @return the result of the operation, or null if it can't be folded
+     * (an overflow, a division by 0 or an operation the assembly doesn't
+     * compute as an int).
+     */
+    private static Integer fold(Opcode opcode, int a, int b) {
+        try {
+            switch (opcode) {
+                case PLUS:
+                    return Math.addExact(a, b);
+                case MINUS:
+                    return Math.subtractExact(a, b);
+                case MULTIPLY:
+                    return Math.multiplyExact(a, b);
+                case DIVIDE:
+                    return b == 0 || (a == Integer.MIN_VALUE && b == -1)
+                            ? null : Integer.valueOf(a / b);
+                case MODULO:
+                    return b == 0 ? null : Integer.valueOf(a % b);
+                case LT:
+                    return a < b ? 1 : 0;
+                case GT:
+                    return a > b ? 1 : 0;
+                case LE:
+                    return a <= b ? 1 : 0;
+                case GE:
+                    return a >= b ? 1 : 0;
+                case EQ:
+                    return a == b ? 1 : 0;
+                case NE:
+                    return a != b ? 1 : 0;
+                default:
+                    return null;
+            }
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * this method writes the program again with the values found.
+     * @return the new quadruples.
+     * @throws AnalyzerExceptions if a new constant couldn't be created.
+     */
+    private Quadruples rewrite() throws AnalyzerExceptions {
+        int n = quadruples.size();
+        int[] opcodes = new int[n];
+        int[] results = new int[n];
+        int[] values1 = new int[n];
+        int[] values2 = new int[n];
+        boolean[] removed = new boolean[n];
+        int[] reads = new int[quadruples.getSymbolLimit()];
+
+        for (int i = 0; i < n; i++) {
+            Opcode opcode = quadruples.getOpcode(i);
+            opcodes[i] = opcode.ordinal();
+            results[i] = quadruples.getResult(i);
+            values1[i] = quadruples.getValue1(i);
+            values2[i] = quadruples.getValue2(i);
+            if (!executable[graph.getBlockOf(i)]) {
+                //the labels are kept, nothing can jump to them
+                removed[i] = opcode != Opcode.LABEL;
+                continue;
+            }
+            if (opcode == Opcode.IF) {
+                if (meet(value1Definitions[i]) == CONSTANT) {
+                    folded++;
+                    if (meetValue < 1) {
+                        opcodes[i] = Opcode.GOTO.ordinal();
+                        values1[i] = Operand.NONE;
+                    } else {
+                        removed[i] = true;
+                    }
+                }
+            } else if (opcode.definesResult() && opcode != Opcode.COPY
+                    && stateOf(i) == CONSTANT) {
+                folded++;
+                opcodes[i] = Opcode.COPY.ordinal();
+                values1[i] = constant(value[reaching.getDefinition(i)]);
+                values2[i] = Operand.NONE;
+            } else if (opcode == Opcode.COPY) {
+                values1[i] = propagated(values1[i], value1Definitions[i]);
+            } else if (opcode.isExpression() && opcode != Opcode.NOT) {
+                //the assembly only takes an immediate as the second value
+                if (opcode.isCommutative()
+                        && isConstant(values1[i], value1Definitions[i])
+                        && !isConstant(values2[i], value2Definitions[i])) {
+                    int swap = values1[i];
+                    values1[i] = values2[i];
+                    values2[i] = swap;
+                    int[] definitions = value1Definitions[i];
+                    value1Definitions[i] = value2Definitions[i];
+                    value2Definitions[i] = definitions;
+                }
+                values2[i] = propagated(values2[i], value2Definitions[i]);
+            }
+            if (!removed[i]) {
+                countRead(reads, values1[i]);
+                countRead(reads, values2[i]);
+            }
+        }
+
+        //the temporaries that aren't read, going back so the ones they read
+        //can be removed too
+        for (int i = n - 1; i >= 0; i--) {
+            Opcode opcode = Opcode.of(opcodes[i]);
+            if (removed[i] || !(opcode == Opcode.COPY || opcode.isExpression())
+                    || !Operand.isSymbol(results[i])
+                    || Operand.kind(results[i]) != Operand.TEMP
+                    || reads[Operand.value(results[i])] > 0) {
+                continue;
+            }
+            removed[i] = true;
+            uncountRead(reads, values1[i]);
+            uncountRead(reads, values2[i]);
+        }
+
+        QuadrupleBuilder builder = new QuadrupleBuilder(n);
+        for (int i = 0; i < n; i++) {
+            if (!removed[i]) {
+                builder.add(Opcode.of(opcodes[i]), results[i], values1[i],
+                        values2[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return true if the operand is a constant or a symbol with a constant
+     * value.
+     */
+    private boolean isConstant(int operand, int[] definitions) {
+        return definitions != null ? meet(definitions) == CONSTANT
+                : operand != Operand.NONE && Operand.kind(operand) == Operand.CONSTANT;
+    }
+
+    private int stateOf(int quadruple) {
+        return state[reaching.getDefinition(quadruple)];
+    }
+
+    /**
+     * @return the constant operand of a symbol with a constant value, or the
+     * same operand otherwise.
+     */
+    private int propagated(int operand, int[] definitions)
+            throws AnalyzerExceptions {
+        if (definitions != null && meet(definitions) == CONSTANT) {
+            return constant(meetValue);
+        }
+        return operand;
+    }
+
+    /**
+     * @param number an int value.
+     * @return the operand of a constant with the value, it is added to the
+     * constant table if there isn't one.
+     * @throws AnalyzerExceptions if the constant couldn't be created.
+     */
+    private int constant(int number) throws AnalyzerExceptions {
+        if (constantIds.isEmpty()) {
+            ConstantTable constants = context.getConstantTable();
+            for (Integer id : constants.table.keySet()) {
+                Constant c = constants.table.get(id);
+                if (Token.INT.equals(c.getType())) {
+                    constantIds.putIfAbsent((int) c.getValue(), id);
+                }
+            }
+        }
+        Integer id = constantIds.get(number);
+        if (id == null) {
+            id = new Constant(context.getConstantTable(),
+                    Integer.toString(number), false).getId();
+            constantIds.put(number, id);
+        }
+        return Operand.constant(id);
+    }
+
+    private static void countRead(int[] reads, int operand) {
+        if (Operand.isSymbol(operand)) {
+            reads[Operand.value(operand)]++;
+        }
+    }
+
+    private static void uncountRead(int[] reads, int operand) {
+        if (Operand.isSymbol(operand)) {
+            reads[Operand.value(operand)]--;
+        }
+    }
+
+    /**
+     * @return the program with the constants propagated.
+     */
+    public Quadruples getQuadruples() {
+        return result;
+    }
+
+    /**
+     * @return the number of operations and branches that were folded.
+     */
+    public int getFolded() {
+        return folded;
+    }
+}
@@ -0,0 +1,591 @@
+package IR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * this class splits the quadruples of a program into basic blocks and
+ * connects them with the edges of its control flow. A basic block starts
+ * at the first quadruple, at every {@link Opcode#LABEL} and after every
+ * {@link Opcode#GOTO}, {@link Opcode#IF} and {@link Opcode#RETURN}:
+ *
+ *      GOTO L      one edge to the block of L
+ *      IF L        an edge to the next block and one to the block of L
+ *      RETURN      no edges, it goes back to the caller
+ *      otherwise   an edge to the next block
+ *
+ * a {@link Opcode#CALL} doesn't end its block, the called function is
+ * an entry of the graph like the first block. Once the blocks are built
+ * the graph finds the dominators of every block and the natural loops.
+ *
+ * the blocks are numbered in the order of their quadruples, so the next
+ * block of a block is the one with the following number.
+ */
+public class ControlFlowGraph {
+
+    //---------------- attributes -----------------//
+
+    private static final int UNDEFINED = -2;
+
+    private final Quadruples quadruples;
+    private final int size;
+    //first quadruple of each block, start[size] is the end of the last one
+    private final int[] start;
+    private final int[] blockOfQuadruple;
+    private final int[] label;
+    private final int[] blockOfLabel;
+    private final int[][] successors;
+    private final int[][] predecessors;
+    private final int[] entries;
+
+    private final int[] reversePostorder;
+    //position of each block in the reverse postorder, -1 if unreachable
+    private final int[] order;
+    private final int[] immediateDominator;
+    private final int[][] dominatorChildren;
+    //each block dominates the blocks numbered from preorder to lastDominated
+    private final int[] preorder;
+    private final int[] lastDominated;
+
+    private final List<Loop> loops;
+    private final Loop[] innermostLoop;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, builds the graph of a program.
+     * @param quadruples the quadruples of the program.
+     * @throws IllegalArgumentException if a quadruple jumps to a label that
+     * doesn't exist.
+     */
+    public ControlFlowGraph(Quadruples quadruples) {
+        this.quadruples = quadruples;
+        this.blockOfQuadruple = new int[quadruples.size()];
+        this.start = findBlocks();
+        this.size = start.length - 1;
+        this.label = new int[size];
+        this.blockOfLabel = findLabels();
+        this.successors = new int[size][];
+        this.predecessors = new int[size][];
+        this.entries = findEdges();
+
+        this.order = new int[size];
+        this.reversePostorder = findReversePostorder();
+        this.immediateDominator = findDominators();
+        this.dominatorChildren = new int[size][];
+        this.preorder = new int[size];
+        this.lastDominated = new int[size];
+        numberDominatorTree();
+
+        this.innermostLoop = new Loop[size];
+        this.loops = findLoops();
+    }
+
+    /**
+     * this method finds the first quadruple of every block.
+     * @return the first quadruple of each block followed by the number of
+     * quadruples.
+     */
+    private int[] findBlocks() {
+        int n = quadruples.size();
+        int[] leaders = new int[n + 1];
+        int blocks = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || quadruples.getOpcode(i) == Opcode.LABEL
+                    || endsBlock(quadruples.getOpcode(i - 1))) {
+                leaders[blocks++] = i;
+            }
+            blockOfQuadruple[i] = blocks - 1;
+        }
+        leaders[blocks] = n;
+        return Arrays.copyOf(leaders, blocks + 1);
+    }
+
+    /**
+     * @param opcode an opcode.
+     * @return true if the quadruple is the last one of its block.
+     */
+    private static boolean endsBlock(Opcode opcode) {
+        return opcode == Opcode.GOTO || opcode == Opcode.IF
+                || opcode == Opcode.RETURN;
+    }
+
+    /**
+     * this method finds the label that starts each block.
+     * @return the block of each label, -1 for the labels that aren't used.
+     */
+    private int[] findLabels() {
+        int highest = -1;
+        for (int b = 0; b < size; b++) {
+            label[b] = -1;
+            if (quadruples.getOpcode(start[b]) == Opcode.LABEL) {
+                label[b] = Operand.value(quadruples.getResult(start[b]));
+                highest = Math.max(highest, label[b]);
+            }
+        }
+        int[] blocks = new int[highest + 1];
+        Arrays.fill(blocks, -1);
+        for (int b = 0; b < size; b++) {
+            if (label[b] != -1) {
+                blocks[label[b]] = b;
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * this method connects the blocks and finds the entries of the graph.
+     * @return the first block followed by the blocks of the functions that
+     * are called.
+     */
+    private int[] findEdges() {
+        int[] predecessorCount = new int[size];
+        BitSet called = new BitSet(size);
+        for (int b = 0; b < size; b++) {
+            for (int i = start[b]; i < start[b + 1]; i++) {
+                if (quadruples.getOpcode(i) == Opcode.CALL) {
+                    called.set(target(i));
+                }
+            }
+            int last = start[b + 1] - 1;
+            int next = b + 1 < size ? b + 1 : -1;
+            switch (quadruples.getOpcode(last)) {
+                case GOTO:
+                    successors[b] = new int[]{target(last)};
+                    break;
+                case IF:
+                    int jump = target(last);
+                    successors[b] = next == -1 || next == jump
+                            ? new int[]{jump} : new int[]{next, jump};
+                    break;
+                case RETURN:
+                    successors[b] = new int[0];
+                    break;
+                default:
+                    successors[b] = next == -1 ? new int[0] : new int[]{next};
+            }
+            for (int s : successors[b]) {
+                predecessorCount[s]++;
+            }
+        }
+        for (int b = 0; b < size; b++) {
+            predecessors[b] = new int[predecessorCount[b]];
+            predecessorCount[b] = 0;
+        }
+        for (int b = 0; b < size; b++) {
+            for (int s : successors[b]) {
+                predecessors[s][predecessorCount[s]++] = b;
+            }
+        }
+        called.clear(0);
+        int[] found = new int[size == 0 ? 0 : called.cardinality() + 1];
+        int n = 0;
+        if (size > 0) {
+            found[n++] = 0;
+        }
+        for (int b = called.nextSetBit(0); b >= 0; b = called.nextSetBit(b + 1)) {
+            found[n++] = b;
+        }
+        return found;
+    }
+
+    /**
+     * @param quadruple a jump, branch or call.
+     * @return the block of its label.
+     */
+    private int target(int quadruple) {
+        int l = Operand.value(quadruples.getResult(quadruple));
+        if (l >= blockOfLabel.length || blockOfLabel[l] == -1) {
+            throw new IllegalArgumentException("quadruple " + quadruple
+                    + " jumps to the missing label L" + l);
+        }
+        return blockOfLabel[l];
+    }
+
+    /**
+     * this method orders the blocks that can be reached from the entries by
+     * the reverse of a depth first postorder, so a block comes before its
+     * successors unless the edge goes back in a loop.
+     * @return the reachable blocks in reverse postorder.
+     */
+    private int[] findReversePostorder() {
+        Arrays.fill(order, -1);
+        int[] postorder = new int[size];
+        int count = 0;
+        boolean[] visited = new boolean[size];
+        //blocks being visited and the next successor of each one
+        int[] stack = new int[size];
+        int[] nextSuccessor = new int[size];
+        for (int entry : entries) {
+            if (visited[entry]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = entry;
+            visited[entry] = true;
+            while (top > 0) {
+                int b = stack[top - 1];
+                if (nextSuccessor[b] < successors[b].length) {
+                    int s = successors[b][nextSuccessor[b]++];
+                    if (!visited[s]) {
+                        visited[s] = true;
+                        stack[top++] = s;
+                    }
+                } else {
+                    top--;
+                    postorder[count++] = b;
+                }
+            }
+        }
+        int[] reverse = new int[count];
+        for (int i = 0; i < count; i++) {
+            reverse[i] = postorder[count - 1 - i];
+            order[reverse[i]] = i;
+        }
+        return reverse;
+    }
+
+    /**
+     * this method finds the immediate dominator of every reachable block
+     * with the iterative algorithm of Cooper, Harvey and Kennedy. The
+     * entries are dominated by a virtual root, which is numbered as the
+     * block after the last one.
+     * @return the immediate dominator of each block, -1 for the entries and
+     * the unreachable blocks.
+     */
+    private int[] findDominators() {
+        int root = size;
+        int[] dominator = new int[size + 1];
+        Arrays.fill(dominator, UNDEFINED);
+        dominator[root] = root;
+        boolean[] entry = new boolean[size];
+        for (int e : entries) {
+            entry[e] = true;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b : reversePostorder) {
+                int candidate = entry[b] ? root : UNDEFINED;
+                for (int p : predecessors[b]) {
+                    if (dominator[p] == UNDEFINED) {
+                        continue;
+                    }
+                    candidate = candidate == UNDEFINED ? p
+                            : intersect(dominator, p, candidate);
+                }
+                if (dominator[b] != candidate) {
+                    dominator[b] = candidate;
+                    changed = true;
+                }
+            }
+        }
+        int[] result = new int[size];
+        for (int b = 0; b < size; b++) {
+            result[b] = dominator[b] == root || dominator[b] == UNDEFINED
+                    ? -1 : dominator[b];
+        }
+        return result;
+    }
+
+    /**
+     * @param dominator the immediate dominators found so far.
+     * @param a a block.
+     * @param b a block.
+     * @return the closest block that dominates both blocks.
+     */
+    private int intersect(int[] dominator, int a, int b) {
+        while (a != b) {
+            while (position(a) > position(b)) {
+                a = dominator[a];
+            }
+            while (position(b) > position(a)) {
+                b = dominator[b];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * @param block a block or the virtual root.
+     * @return the position of the block in the reverse postorder, the root
+     * comes before all the blocks.
+     */
+    private int position(int block) {
+        return block == size ? -1 : order[block];
+    }
+
+    /**
+     * this method builds the dominator tree and numbers it in preorder, so
+     * the blocks dominated by a block are the ones numbered from its own
+     * number to {@link #lastDominated}.
+     */
+    private void numberDominatorTree() {
+        int[] childCount = new int[size];
+        for (int b : reversePostorder) {
+            if (immediateDominator[b] != -1) {
+                childCount[immediateDominator[b]]++;
+            }
+        }
+        for (int b = 0; b < size; b++) {
+            dominatorChildren[b] = new int[childCount[b]];
+            childCount[b] = 0;
+            preorder[b] = -1;
+            lastDominated[b] = -1;
+        }
+        for (int b : reversePostorder) {
+            int d = immediateDominator[b];
+            if (d != -1) {
+                dominatorChildren[d][childCount[d]++] = b;
+            }
+        }
+        int number = 0;
+        int[] stack = new int[size];
+        int[] nextChild = new int[size];
+        for (int e : reversePostorder) {
+            if (immediateDominator[e] != -1) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = e;
+            preorder[e] = number++;
+            while (top > 0) {
+                int b = stack[top - 1];
+                if (nextChild[b] < dominatorChildren[b].length) {
+                    int child = dominatorChildren[b][nextChild[b]++];
+                    preorder[child] = number++;
+                    stack[top++] = child;
+                } else {
+                    top--;
+                    lastDominated[b] = number - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * this method finds the natural loops of the graph. Every edge to a
+     * block that dominates its source is a back edge, the loop of a header
+     * is made of the blocks that reach one of its back edges without going
+     * through the header.
+     * @return the loops, the outer loops come before the loops they
+     * contain.
+     */
+    private List<Loop> findLoops() {
+        ArrayList<Loop> found = new ArrayList<>();
+        int[] latches = new int[size];
+        int[] worklist = new int[size];
+        for (int header : reversePostorder) {
+            int count = 0;
+            for (int p : predecessors[header]) {
+                if (dominates(header, p)) {
+                    latches[count++] = p;
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+            BitSet body = new BitSet(size);
+            body.set(header);
+            int top = 0;
+            for (int i = 0; i < count; i++) {
+                if (!body.get(latches[i])) {
+                    body.set(latches[i]);
+                    worklist[top++] = latches[i];
+                }
+            }
+            while (top > 0) {
+                int b = worklist[--top];
+                for (int p : predecessors[b]) {
+                    if (isReachable(p) && !body.get(p)) {
+                        body.set(p);
+                        worklist[top++] = p;
+                    }
+                }
+            }
+            found.add(new Loop(header, body, Arrays.copyOf(latches, count)));
+        }
+        found.sort((a, b) -> b.getBlocks().cardinality()
+                - a.getBlocks().cardinality());
+        for (Loop loop : found) {
+            Loop parent = innermostLoop[loop.getHeader()];
+            if (parent != null) {
+                loop.setParent(parent);
+            }
+            BitSet body = loop.getBlocks();
+            for (int b = body.nextSetBit(0); b >= 0; b = body.nextSetBit(b + 1)) {
+                innermostLoop[b] = loop;
+            }
+        }
+        return Collections.unmodifiableList(found);
+    }
+
+    public Quadruples getQuadruples() {
+        return quadruples;
+    }
+
+    /**
+     * @return the number of blocks.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param block a block.
+     * @return the index of the first quadruple of the block.
+     */
+    public int getStart(int block) {
+        return start[block];
+    }
+
+    /**
+     * @param block a block.
+     * @return the index after the last quadruple of the block.
+     */
+    public int getEnd(int block) {
+        return start[block + 1];
+    }
+
+    /**
+     * @param quadruple the index of a quadruple.
+     * @return the block that contains it.
+     */
+    public int getBlockOf(int quadruple) {
+        return blockOfQuadruple[quadruple];
+    }
+
+    /**
+     * @param block a block.
+     * @return the label that starts the block, or -1 if it has none.
+     */
+    public int getLabel(int block) {
+        return label[block];
+    }
+
+    /**
+     * @param label the number of a label.
+     * @return the block that starts with the label, or -1 if there is none.
+     */
+    public int getBlockOfLabel(int label) {
+        return label >= 0 && label < blockOfLabel.length
+                ? blockOfLabel[label] : -1;
+    }
+
+    /**
+     * @param block a block.
+     * @return the blocks where the control goes after the block, the array
+     * must not be modified.
+     */
+    public int[] getSuccessors(int block) {
+        return successors[block];
+    }
+
+    /**
+     * @param block a block.
+     * @return the blocks where the control comes from, the array must not
+     * be modified.
+     */
+    public int[] getPredecessors(int block) {
+        return predecessors[block];
+    }
+
+    /**
+     * @return the first block and the blocks of the called functions.
+     */
+    public int[] getEntries() {
+        return entries.clone();
+    }
+
+    /**
+     * @return the reachable blocks in reverse postorder, the array must not
+     * be modified.
+     */
+    public int[] getReversePostorder() {
+        return reversePostorder;
+    }
+
+    /**
+     * @param block a block.
+     * @return true if the block can be reached from an entry.
+     */
+    public boolean isReachable(int block) {
+        return order[block] != -1;
+    }
+
+    /**
+     * @param block a block.
+     * @return the closest block that dominates it, or -1 for the entries
+     * and the unreachable blocks.
+     */
+    public int getImmediateDominator(int block) {
+        return immediateDominator[block];
+    }
+
+    /**
+     * @param block a block.
+     * @return the blocks immediately dominated by the block, in reverse
+     * postorder. The array must not be modified.
+     */
+    public int[] getDominatorChildren(int block) {
+        return dominatorChildren[block];
+    }
+
+    /**
+     * @param a a block.
+     * @param b a block.
+     * @return true if every path from an entry to b goes through a, every
+     * block dominates itself.
+     */
+    public boolean dominates(int a, int b) {
+        if (a == b) {
+            return true;
+        }
+        return preorder[a] != -1 && preorder[b] != -1
+                && preorder[a] <= preorder[b] && preorder[b] <= lastDominated[a];
+    }
+
+    /**
+     * @return the natural loops, the outer loops come before the loops they
+     * contain.
+     */
+    public List<Loop> getLoops() {
+        return loops;
+    }
+
+    /**
+     * @param block a block.
+     * @return the innermost loop that contains the block, or null if it
+     * isn't in a loop.
+     */
+    public Loop getInnermostLoop(int block) {
+        return innermostLoop[block];
+    }
+
+    /**
+     * @param block a block.
+     * @return the number of loops that contain the block.
+     */
+    public int getLoopDepth(int block) {
+        return innermostLoop[block] == null ? 0 : innermostLoop[block].getDepth();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < size; b++) {
+            sb.append('B').append(b).append(" [").append(start[b]).append(", ")
+                    .append(start[b + 1]).append(")");
+            if (label[b] != -1) {
+                sb.append(" L").append(label[b]);
+            }
+            sb.append(" -> ").append(Arrays.toString(successors[b]));
+            sb.append(" idom ").append(immediateDominator[b]);
+            sb.append(" depth ").append(getLoopDepth(b)).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,223 @@
+package IR;
+
+import java.util.Arrays;
+
+/**
+ * this class solves a dataflow problem over the blocks of a
+ * {@link ControlFlowGraph}. The facts are bit vectors stored in arrays of
+ * longs, and every block changes them with its gen and kill sets:
+ *
+ *      forward     out = gen | (in & ~kill), in is the meet of the out of
+ *                  the predecessors
+ *      backward    in = gen | (out & ~kill), out is the meet of the in of
+ *                  the successors
+ *
+ * the meet is the union or the intersection of the sets. A subclass fills
+ * the gen and kill sets of every block and then calls {@link #solve()}.
+ * The blocks are visited with a worklist that starts in reverse postorder
+ * (in postorder for the backward problems), so a block is only visited
+ * again when one of the blocks it depends on changed. Only the reachable
+ * blocks are solved.
+ */
+public abstract class DataflowAnalysis {
+
+    //---------------- attributes -----------------//
+
+    public enum Direction {
+        FORWARD,
+        BACKWARD
+    }
+
+    public enum Meet {
+        UNION,
+        INTERSECTION
+    }
+
+    protected final ControlFlowGraph graph;
+    protected final int bits;
+    protected final int words;
+    protected final long[][] gen;
+    protected final long[][] kill;
+
+    private final Direction direction;
+    private final Meet meet;
+    private final long[][] in;
+    private final long[][] out;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates an analysis with empty gen and kill sets.
+     * @param graph the graph being analyzed.
+     * @param bits the number of facts.
+     * @param direction the direction the facts flow.
+     * @param meet how the facts of many blocks are joined.
+     */
+    protected DataflowAnalysis(ControlFlowGraph graph, int bits,
+                               Direction direction, Meet meet) {
+        this.graph = graph;
+        this.bits = bits;
+        this.words = (bits + 63) >>> 6;
+        this.direction = direction;
+        this.meet = meet;
+        int n = graph.size();
+        this.gen = new long[n][words];
+        this.kill = new long[n][words];
+        this.in = new long[n][words];
+        this.out = new long[n][words];
+    }
+
+    /**
+     * this method gives the facts that hold at the entries of the graph for
+     * a forward problem, or at the blocks without successors for a backward
+     * problem. By default no fact holds.
+     * @param block the entry or exit block.
+     * @return the facts at the boundary of the block.
+     */
+    protected long[] boundary(int block) {
+        return new long[words];
+    }
+
+    /**
+     * this method finds the facts at the start and at the end of every
+     * reachable block, it must be called once the gen and kill sets are
+     * filled.
+     */
+    protected void solve() {
+        boolean forward = direction == Direction.FORWARD;
+        int[] rpo = graph.getReversePostorder();
+        int n = graph.size();
+        //a block is a boundary if it is an entry, or an exit when going back
+        boolean[] isBoundary = new boolean[n];
+        if (forward) {
+            for (int e : graph.getEntries()) {
+                isBoundary[e] = true;
+            }
+        } else {
+            for (int b : rpo) {
+                isBoundary[b] = graph.getSuccessors(b).length == 0;
+            }
+        }
+        long[] top = new long[words];
+        if (meet == Meet.INTERSECTION) {
+            Arrays.fill(top, -1L);
+            clearUnusedBits(top);
+        }
+        long[][] before = forward ? in : out;
+        long[][] after = forward ? out : in;
+        for (int b : rpo) {
+            System.arraycopy(top, 0, after[b], 0, words);
+        }
+
+        //circular queue of the blocks waiting to be visited
+        int[] queue = new int[rpo.length + 1];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < rpo.length; i++) {
+            int b = forward ? rpo[i] : rpo[rpo.length - 1 - i];
+            queue[tail++] = b;
+            queued[b] = true;
+        }
+        long[] value = new long[words];
+        while (head != tail) {
+            int b = queue[head];
+            head = head + 1 == queue.length ? 0 : head + 1;
+            queued[b] = false;
+
+            int[] sources = forward ? graph.getPredecessors(b)
+                    : graph.getSuccessors(b);
+            boolean first = true;
+            if (isBoundary[b]) {
+                System.arraycopy(boundary(b), 0, before[b], 0, words);
+                first = false;
+            }
+            for (int s : sources) {
+                if (!graph.isReachable(s)) {
+                    continue;
+                }
+                if (first) {
+                    System.arraycopy(after[s], 0, before[b], 0, words);
+                    first = false;
+                } else if (meet == Meet.UNION) {
+                    for (int w = 0; w < words; w++) {
+                        before[b][w] |= after[s][w];
+                    }
+                } else {
+                    for (int w = 0; w < words; w++) {
+                        before[b][w] &= after[s][w];
+                    }
+                }
+            }
+            if (first) {
+                Arrays.fill(before[b], 0L);
+            }
+
+            boolean changed = false;
+            for (int w = 0; w < words; w++) {
+                value[w] = gen[b][w] | (before[b][w] & ~kill[b][w]);
+                changed |= value[w] != after[b][w];
+            }
+            if (!changed) {
+                continue;
+            }
+            System.arraycopy(value, 0, after[b], 0, words);
+            int[] targets = forward ? graph.getSuccessors(b)
+                    : graph.getPredecessors(b);
+            for (int t : targets) {
+                if (!queued[t] && graph.isReachable(t)) {
+                    queue[tail] = t;
+                    tail = tail + 1 == queue.length ? 0 : tail + 1;
+                    queued[t] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param block a block.
+     * @return the facts that hold at the start of the block, the array must
+     * not be modified.
+     */
+    public long[] getIn(int block) {
+        return in[block];
+    }
+
+    /**
+     * @param block a block.
+     * @return the facts that hold at the end of the block, the array must
+     * not be modified.
+     */
+    public long[] getOut(int block) {
+        return out[block];
+    }
+
+    /**
+     * @return the number of facts.
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    public static boolean contains(long[] set, int bit) {
+        return (set[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    protected static void add(long[] set, int bit) {
+        set[bit >>> 6] |= 1L << bit;
+    }
+
+    protected static void remove(long[] set, int bit) {
+        set[bit >>> 6] &= ~(1L << bit);
+    }
+
+    /**
+     * this method clears the bits of the last word that aren't facts.
+     * @param set the set to be cleared.
+     */
+    protected void clearUnusedBits(long[] set) {
+        if ((bits & 63) != 0) {
+            set[words - 1] &= (1L << bits) - 1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package IR;
+
+import java.util.Arrays;
+
+/**
+ * this class finds the symbols that are live at the start and at the end
+ * of every block. A symbol is live at a point if its value may be read
+ * before it is written again. The facts are the ids of the symbols.
+ *
+ * all the symbols are registers shared by the main and the functions, so
+ * a {@link Opcode#CALL} and a {@link Opcode#RETURN} read every symbol.
+ */
+public class LiveVariables extends DataflowAnalysis {
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, it solves the analysis.
+     * @param graph the graph being analyzed.
+     */
+    public LiveVariables(ControlFlowGraph graph) {
+        super(graph, graph.getQuadruples().getSymbolLimit(),
+                Direction.BACKWARD, Meet.UNION);
+        for (int b = 0; b < graph.size(); b++) {
+            for (int i = graph.getEnd(b) - 1; i >= graph.getStart(b); i--) {
+                transfer(i, gen[b], kill[b]);
+            }
+        }
+        solve();
+    }
+
+    /**
+     * this method changes a set of live symbols going back over a
+     * quadruple.
+     * @param quadruple the index of the quadruple.
+     * @param live the symbols live after the quadruple, they become the
+     *             ones live before it.
+     * @param killed if not null, the symbol written by the quadruple is
+     *               added to it.
+     */
+    private void transfer(int quadruple, long[] live, long[] killed) {
+        Quadruples quadruples = graph.getQuadruples();
+        Opcode opcode = quadruples.getOpcode(quadruple);
+        int defined = quadruples.getDefinedSymbol(quadruple);
+        if (defined != -1) {
+            remove(live, defined);
+            if (killed != null) {
+                add(killed, defined);
+            }
+        }
+        if (opcode == Opcode.CALL || opcode == Opcode.RETURN) {
+            Arrays.fill(live, -1L);
+            clearUnusedBits(live);
+            return;
+        }
+        addUse(live, quadruples.getValue1(quadruple));
+        addUse(live, quadruples.getValue2(quadruple));
+        if (opcode.definesResult() && opcode != Opcode.COPY
+                && !opcode.isExpression()) {
+            //the compound assignations read their result
+            addUse(live, quadruples.getResult(quadruple));
+        }
+    }
+
+    private static void addUse(long[] live, int operand) {
+        if (Operand.isSymbol(operand)) {
+            add(live, Operand.value(operand));
+        }
+    }
+
+    /**
+     * @param quadruple the index of a quadruple.
+     * @return the symbols live right after the quadruple.
+     */
+    public long[] getLiveAfter(int quadruple) {
+        int b = graph.getBlockOf(quadruple);
+        long[] live = Arrays.copyOf(getOut(b), words);
+        for (int i = graph.getEnd(b) - 1; i > quadruple; i--) {
+            transfer(i, live, null);
+        }
+        return live;
+    }
+
+    /**
+     * @param block a block.
+     * @param symbol the id of a symbol.
+     * @return true if the symbol is live at the end of the block.
+     */
+    public boolean isLiveOut(int block, int symbol) {
+        return symbol < bits && contains(getOut(block), symbol);
+    }
+
+    /**
+     * @param block a block.
+     * @param symbol the id of a symbol.
+     * @return true if the symbol is live at the start of the block.
+     */
+    public boolean isLiveIn(int block, int symbol) {
+        return symbol < bits && contains(getIn(block), symbol);
+    }
+}
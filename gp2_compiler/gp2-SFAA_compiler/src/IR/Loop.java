@@ -0,0 +1,81 @@
+package IR;
+
+import java.util.BitSet;
+
+/**
+ * this class is a natural loop of a {@link ControlFlowGraph}. The loop is
+ * made of a header block, which dominates every block of the loop, and
+ * the blocks that can reach one of its back edges without going through
+ * the header. The back edges of a loop are the edges that go from a block
+ * of the loop (a latch) to the header.
+ */
+public class Loop {
+
+    //---------------- attributes -----------------//
+
+    private final int header;
+    private final BitSet blocks;
+    private final int[] latches;
+    private Loop parent;
+    private int depth;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates a loop, only the control flow graph creates them.
+     * @param header the header block of the loop.
+     * @param blocks the blocks of the loop, including the header.
+     * @param latches the blocks with a back edge to the header.
+     */
+    Loop(int header, BitSet blocks, int[] latches) {
+        this.header = header;
+        this.blocks = blocks;
+        this.latches = latches;
+        this.parent = null;
+        this.depth = 1;
+    }
+
+    public int getHeader() {
+        return header;
+    }
+
+    /**
+     * @return the blocks of the loop, the set must not be modified.
+     */
+    public BitSet getBlocks() {
+        return blocks;
+    }
+
+    public int[] getLatches() {
+        return latches.clone();
+    }
+
+    public boolean contains(int block) {
+        return blocks.get(block);
+    }
+
+    /**
+     * @return the innermost loop that contains this one, or null if this is
+     * an outermost loop.
+     */
+    public Loop getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the number of loops this loop is nested in, counting itself.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    void setParent(Loop parent) {
+        this.parent = parent;
+        this.depth = parent.depth + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "loop B" + header + " " + blocks;
+    }
+}
@@ -0,0 +1,149 @@
+package IR;
+
+import Terminals.TokenDatabase;
+
+import java.util.HashMap;
+
+/**
+ * the operations of the quadruples. Each operation is the token used as the
+ * operation of a TAC, except {@link #COPY} which is the TAC without
+ * operation (an assignation).
+ */
+public enum Opcode {
+    COPY(null),
+    PLUS("+"),
+    MINUS("-"),
+    DIVIDE("/"),
+    MULTIPLY("*"),
+    MODULO("%"),
+    POWER("^"),
+    PLUS_ASSIGN("+="),
+    MINUS_ASSIGN("-="),
+    DIVIDE_ASSIGN("/="),
+    MULTIPLY_ASSIGN("*="),
+    LT("<"),
+    GT(">"),
+    LE("<="),
+    GE(">="),
+    EQ("=="),
+    NE("!="),
+    OR("OR"),
+    AND("AND"),
+    NOT("!"),
+    GOTO("GOTO"),
+    LABEL("BLOCK_START"),
+    IF("if"),
+    RETURN("return"),
+    CALL("call");
+
+    //---------------- attributes -----------------//
+
+    private static final Opcode[] VALUES = values();
+    //token id -> opcode, built the first time a token is translated
+    private static volatile Opcode[] byToken;
+
+    private final String tokenName;
+
+    //---------------- methods -----------------//
+
+    Opcode(String tokenName) {
+        this.tokenName = tokenName;
+    }
+
+    /**
+     * @return the name of the token of the operation, null for
+     * {@link #COPY}.
+     */
+    public String getTokenName() {
+        return tokenName;
+    }
+
+    /**
+     * @return true if the first operand is a label instead of a value.
+     */
+    public boolean hasLabel() {
+        return this == GOTO || this == LABEL || this == IF || this == CALL;
+    }
+
+    /**
+     * @return true if the result is a symbol written by the operation.
+     */
+    public boolean definesResult() {
+        return !hasLabel() && this != RETURN;
+    }
+
+    /**
+     * @return true if the operation computes its result only from its two
+     * values, so computing it twice with the same values gives the same
+     * result.
+     */
+    public boolean isExpression() {
+        switch (this) {
+            case PLUS: case MINUS: case DIVIDE: case MULTIPLY: case MODULO:
+            case POWER: case LT: case GT: case LE: case GE: case EQ: case NE:
+            case OR: case AND: case NOT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return true if the two values of the operation can be swapped.
+     */
+    public boolean isCommutative() {
+        switch (this) {
+            case PLUS: case MULTIPLY: case EQ: case NE: case OR: case AND:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param ordinal the position of an opcode in the enum.
+     * @return the opcode in that position.
+     */
+    public static Opcode of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * this method finds the opcode of the operation of a TAC.
+     * @param tokenId the id of the token used as operation.
+     * @return the opcode, or null if the token isn't an operation.
+     */
+    public static Opcode fromToken(int tokenId) {
+        Opcode[] table = byToken;
+        if (table == null) {
+            table = buildTokenTable();
+        }
+        return tokenId >= 0 && tokenId < table.length ? table[tokenId] : null;
+    }
+
+    /**
+     * this method binds every token id to the opcode with the same name. It
+     * goes through the ids instead of looking up the names, so the opcode of
+     * each token the lexer emits is found even if a name isn't unique.
+     * @return the table that translates a token id into its opcode.
+     */
+    private static synchronized Opcode[] buildTokenTable() {
+        if (byToken == null) {
+            HashMap<String, Opcode> byName = new HashMap<>();
+            for (Opcode opcode : VALUES) {
+                if (opcode.tokenName != null) {
+                    byName.put(opcode.tokenName, opcode);
+                }
+            }
+            Opcode[] table = new Opcode[TokenDatabase.getNumberOfIds()];
+            for (int id = 0; id < table.length; id++) {
+                String name = TokenDatabase.getName(id);
+                if (name != null) {
+                    table[id] = byName.get(name);
+                }
+            }
+            byToken = table;
+        }
+        return byToken;
+    }
+}
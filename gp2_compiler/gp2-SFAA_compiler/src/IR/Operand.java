@@ -0,0 +1,107 @@
+package IR;
+
+/**
+ * this class encodes the operands of the quadruples as tagged integers. The
+ * two highest bits of the integer are the kind of the operand and the
+ * other 30 bits are its value:
+ *
+ *      TEMP      the id in the symbol table of a temporary of the TAC
+ *      VARIABLE  the id in the symbol table of a variable of the program
+ *      CONSTANT  the id in the constant table of a constant
+ *      LABEL     the number of a block
+ *
+ * a missing operand is {@link #NONE}.
+ */
+public final class Operand {
+
+    //---------------- attributes -----------------//
+
+    public static final int NONE = -1;
+
+    public static final int TEMP = 0;
+    public static final int VARIABLE = 1;
+    public static final int CONSTANT = 2;
+    public static final int LABEL = 3;
+
+    private static final int KIND_SHIFT = 30;
+    private static final int VALUE_MASK = (1 << KIND_SHIFT) - 1;
+
+    //---------------- methods -----------------//
+
+    private Operand() {
+    }
+
+    public static int temp(int symbolId) {
+        return encode(TEMP, symbolId);
+    }
+
+    public static int variable(int symbolId) {
+        return encode(VARIABLE, symbolId);
+    }
+
+    public static int constant(int constantId) {
+        return encode(CONSTANT, constantId);
+    }
+
+    public static int label(int block) {
+        return encode(LABEL, block);
+    }
+
+    /**
+     * @param operand an encoded operand, it must not be {@link #NONE}.
+     * @return the kind of the operand.
+     */
+    public static int kind(int operand) {
+        return operand >>> KIND_SHIFT;
+    }
+
+    /**
+     * @param operand an encoded operand, it must not be {@link #NONE}.
+     * @return the id or number of the operand.
+     */
+    public static int value(int operand) {
+        return operand & VALUE_MASK;
+    }
+
+    /**
+     * @param operand an encoded operand.
+     * @return true if the operand is a temporary or a variable.
+     */
+    public static boolean isSymbol(int operand) {
+        return operand != NONE && kind(operand) <= VARIABLE;
+    }
+
+    /**
+     * @param operand an encoded operand.
+     * @return the operand in a readable format, for example t12, v3, c7 or
+     * L2.
+     */
+    public static String toString(int operand) {
+        if (operand == NONE) {
+            return "_";
+        }
+        switch (kind(operand)) {
+            case TEMP:
+                return "t" + value(operand);
+            case VARIABLE:
+                return "v" + value(operand);
+            case CONSTANT:
+                return "c" + value(operand);
+            default:
+                return "L" + value(operand);
+        }
+    }
+
+    /**
+     * @param kind the kind of the operand.
+     * @param value the id or number of the operand.
+     * @return the encoded operand.
+     */
+    private static int encode(int kind, int value) {
+        // the highest label would have the same bits as NONE
+        if (value < 0 || value >= VALUE_MASK) {
+            throw new IllegalArgumentException("operand out of range: " + value);
+        }
+        return (kind << KIND_SHIFT) | value;
+    }
+}
@@ -0,0 +1,45 @@
+package IR;
+
+import Compiler.CompileMetrics;
+import Compiler.CompilerContext;
+import Terminals.Exception.AnalyzerExceptions;
+
+/**
+ * this class runs the optimization passes over the quadruples of a
+ * program, each pass takes the quadruples written by the previous one. The
+ * passes are called by the drivers of the compiler between the parser and
+ * the assembly generator, only when the context optimizes.
+ */
+public class Optimizer {
+
+    //---------------- methods -----------------//
+
+    private Optimizer() {
+    }
+
+    /**
+     * this method optimizes a program if its context optimizes (see
+     * {@link CompilerContext#isOptimizing()}), the time of the passes is
+     * measured as the optimization phase.
+     * @param quadruples the quadruples of the program.
+     * @param context the compilation of the program.
+     * @return the optimized quadruples, or the same quadruples if the
+     * context doesn't optimize.
+     * @throws AnalyzerExceptions if a pass couldn't create a constant.
+     */
+    public static Quadruples optimize(Quadruples quadruples,
+                                      CompilerContext context)
+            throws AnalyzerExceptions {
+        if (!context.isOptimizing()) {
+            return quadruples;
+        }
+        CompileMetrics metrics = context.getMetrics();
+        metrics.begin(CompileMetrics.Phase.OPTIMIZATION);
+        try {
+            quadruples = new ConstantPropagation(quadruples, context).getQuadruples();
+            return new ValueNumbering(quadruples, context).getQuadruples();
+        } finally {
+            metrics.end(CompileMetrics.Phase.OPTIMIZATION);
+        }
+    }
+}
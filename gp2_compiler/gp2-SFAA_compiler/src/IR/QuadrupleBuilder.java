@@ -0,0 +1,73 @@
+package IR;
+
+import java.util.Arrays;
+
+/**
+ * this class creates a list of {@link Quadruples}. The quadruples are added
+ * at the end of a growable array of integers, which doubles its capacity
+ * when it is full.
+ */
+public class QuadrupleBuilder {
+
+    //---------------- attributes -----------------//
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] code;
+    private int size;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, creates an empty builder.
+     */
+    public QuadrupleBuilder() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * creates an empty builder with a given initial capacity.
+     * @param capacity the number of quadruples the builder can hold before
+     *                 growing.
+     */
+    public QuadrupleBuilder(int capacity) {
+        this.code = new int[Math.max(capacity, 1) * Quadruples.WIDTH];
+        this.size = 0;
+    }
+
+    /**
+     * adds a quadruple at the end of the list.
+     * @param opcode the operation.
+     * @param result the operand that receives the result, or the label of
+     *               the jumps, labels and calls.
+     * @param value1 the first operand.
+     * @param value2 the second operand.
+     * @return the index of the quadruple.
+     */
+    public int add(Opcode opcode, int result, int value1, int value2) {
+        int position = size * Quadruples.WIDTH;
+        if (position == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[position] = opcode.ordinal();
+        code[position + 1] = result;
+        code[position + 2] = value1;
+        code[position + 3] = value2;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the quadruples added so far, the builder can't be used after
+     * this.
+     */
+    public Quadruples build() {
+        int[] packed = code.length == size * Quadruples.WIDTH ? code
+                : Arrays.copyOf(code, size * Quadruples.WIDTH);
+        code = null;
+        return new Quadruples(packed, size);
+    }
+}
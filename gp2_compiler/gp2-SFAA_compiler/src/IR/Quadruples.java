@@ -0,0 +1,189 @@
+package IR;
+
+import Compiler.CompilerContext;
+
+/**
+ * this class stores the three address code of a program as quadruples
+ * packed in a single array of integers. Each quadruple uses
+ * {@link #WIDTH} consecutive integers:
+ *
+ *      [opcode] [result] [value1] [value2]
+ *
+ * the opcode is the ordinal of its {@link Opcode} and the operands are
+ * encoded by {@link Operand}. The quadruples are created with a
+ * {@link QuadrupleBuilder} and read with a {@link Cursor} or by their
+ * index.
+ */
+public class Quadruples {
+
+    //---------------- attributes -----------------//
+
+    public static final int WIDTH = 4;
+
+    private static final int OPCODE = 0;
+    private static final int RESULT = 1;
+    private static final int VALUE1 = 2;
+    private static final int VALUE2 = 3;
+
+    private final int[] code;
+    private final int size;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates the quadruples over an array that is already filled, only the
+     * builder creates them.
+     * @param code the packed quadruples.
+     * @param size the number of quadruples in the array.
+     */
+    Quadruples(int[] code, int size) {
+        this.code = code;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Opcode getOpcode(int index) {
+        return Opcode.of(code[index * WIDTH + OPCODE]);
+    }
+
+    public int getResult(int index) {
+        return code[index * WIDTH + RESULT];
+    }
+
+    public int getValue1(int index) {
+        return code[index * WIDTH + VALUE1];
+    }
+
+    public int getValue2(int index) {
+        return code[index * WIDTH + VALUE2];
+    }
+
+    /**
+     * @param index the index of a quadruple.
+     * @return the id of the symbol written by the quadruple, or -1 if it
+     * doesn't write one.
+     */
+    public int getDefinedSymbol(int index) {
+        int result = getResult(index);
+        return getOpcode(index).definesResult() && Operand.isSymbol(result)
+                ? Operand.value(result) : -1;
+    }
+
+    /**
+     * @return the highest symbol id used by the quadruples plus one.
+     */
+    public int getSymbolLimit() {
+        int limit = 0;
+        for (int i = 0; i < size * WIDTH; i++) {
+            if (i % WIDTH != OPCODE && Operand.isSymbol(code[i])) {
+                limit = Math.max(limit, Operand.value(code[i]) + 1);
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * @return a cursor placed before the first quadruple.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * @param index the index of a quadruple.
+     * @return the quadruple in a readable format.
+     */
+    public String toString(int index) {
+        return Operand.toString(getResult(index)) + " = "
+                + getOpcode(index) + " "
+                + Operand.toString(getValue1(index)) + " "
+                + Operand.toString(getValue2(index));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(i).append(": ").append(toString(i)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param context the compilation of the quadruples.
+     * @return the quadruples in a readable format, with the names of the
+     * symbols and the values of the constants.
+     */
+    public String toString(CompilerContext context) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(i).append(": ")
+                    .append(toString(getResult(i), context)).append(" = ")
+                    .append(getOpcode(i)).append(' ')
+                    .append(toString(getValue1(i), context)).append(' ')
+                    .append(toString(getValue2(i), context)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String toString(int operand, CompilerContext context) {
+        if (operand == Operand.NONE) {
+            return Operand.toString(operand);
+        }
+        switch (Operand.kind(operand)) {
+            case Operand.TEMP:
+                return "t" + context.getSymbolTable().table.get(Operand.value(operand)).getName();
+            case Operand.VARIABLE:
+                return "#" + context.getSymbolTable().table.get(Operand.value(operand)).getName();
+            case Operand.CONSTANT:
+                return String.valueOf(context.getConstantTable().table.get(Operand.value(operand)).getValue());
+            default:
+                return Operand.toString(operand);
+        }
+    }
+
+    /**
+     * a cursor that goes through the quadruples in order without creating
+     * an object per quadruple.
+     */
+    public class Cursor {
+
+        private int index = -1;
+
+        /**
+         * moves the cursor to the next quadruple.
+         * @return false if there are no more quadruples.
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Opcode getOpcode() {
+            return Quadruples.this.getOpcode(index);
+        }
+
+        public int getResult() {
+            return Quadruples.this.getResult(index);
+        }
+
+        public int getValue1() {
+            return Quadruples.this.getValue1(index);
+        }
+
+        public int getValue2() {
+            return Quadruples.this.getValue2(index);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package IR;
+
+import java.util.Arrays;
+
+/**
+ * this class finds the definitions that reach every block. A definition
+ * is a quadruple that writes a symbol, it reaches a point if there is a
+ * path from it to the point where the symbol isn't written again.
+ *
+ * the functions can write any symbol, so every {@link Opcode#CALL} is
+ * also a definition, of all the symbols at once. A call never kills the
+ * other definitions and it is never killed, a client that finds a call
+ * among the definitions of a symbol must assume the symbol is unknown.
+ *
+ * every symbol also has two initial definitions, numbered after the ones
+ * of the quadruples: the value it has when the program starts, which
+ * reaches from the first block, and the unknown value it has when a
+ * function is called, which reaches from the other entries. They are
+ * killed like any other definition of the symbol, so a use reached by one
+ * of them may read the value the symbol had at an entry.
+ */
+public class ReachingDefinitions extends DataflowAnalysis {
+
+    //---------------- attributes -----------------//
+
+    //quadruple of each definition
+    private final int[] definitions;
+    //definition of each quadruple, -1 if it defines nothing
+    private final int[] definitionOf;
+    //definitions of each symbol, not including the calls
+    private final int[][] definitionsOfSymbol;
+    //number of definitions made by quadruples
+    private final int quadrupleDefinitions;
+    private final int symbols;
+    //last definition of each symbol in the quadruples being transferred
+    private final int[] lastDefinition;
+    private final int[] writtenSymbols;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, it solves the analysis.
+     * @param graph the graph being analyzed.
+     */
+    public ReachingDefinitions(ControlFlowGraph graph) {
+        this(graph, numberDefinitions(graph.getQuadruples()));
+    }
+
+    private ReachingDefinitions(ControlFlowGraph graph, int[] definitionOf) {
+        super(graph, count(definitionOf)
+                        + 2 * graph.getQuadruples().getSymbolLimit(),
+                Direction.FORWARD, Meet.UNION);
+        Quadruples quadruples = graph.getQuadruples();
+        this.definitionOf = definitionOf;
+        this.quadrupleDefinitions = count(definitionOf);
+        this.symbols = quadruples.getSymbolLimit();
+        this.definitions = new int[quadrupleDefinitions];
+        int[] perSymbol = new int[symbols];
+        for (int i = 0; i < definitionOf.length; i++) {
+            if (definitionOf[i] != -1) {
+                definitions[definitionOf[i]] = i;
+                int symbol = quadruples.getDefinedSymbol(i);
+                if (symbol != -1) {
+                    perSymbol[symbol]++;
+                }
+            }
+        }
+        this.definitionsOfSymbol = new int[symbols][];
+        for (int s = 0; s < symbols; s++) {
+            definitionsOfSymbol[s] = new int[perSymbol[s] + 2];
+            definitionsOfSymbol[s][0] = getInitialDefinition(s);
+            definitionsOfSymbol[s][1] = getUnknownDefinition(s);
+            perSymbol[s] = 2;
+        }
+        for (int d = 0; d < quadrupleDefinitions; d++) {
+            int symbol = quadruples.getDefinedSymbol(definitions[d]);
+            if (symbol != -1) {
+                definitionsOfSymbol[symbol][perSymbol[symbol]++] = d;
+            }
+        }
+
+        this.lastDefinition = new int[symbols];
+        this.writtenSymbols = new int[symbols];
+        Arrays.fill(lastDefinition, -1);
+        for (int b = 0; b < graph.size(); b++) {
+            transfer(graph.getStart(b), graph.getEnd(b), gen[b], kill[b]);
+        }
+        solve();
+    }
+
+    /**
+     * the program starts in the first block with the initial values, the
+     * other entries are functions where any value is possible.
+     * @param block the entry block.
+     * @return the initial definitions that reach the start of the block.
+     */
+    @Override
+    protected long[] boundary(int block) {
+        long[] entry = new long[words];
+        for (int s = 0; s < symbols; s++) {
+            add(entry, block == 0 ? getInitialDefinition(s)
+                    : getUnknownDefinition(s));
+        }
+        return entry;
+    }
+
+    /**
+     * this method numbers the definitions in the order of their quadruples.
+     * @param quadruples the quadruples of the program.
+     * @return the definition of each quadruple, -1 if it defines nothing.
+     */
+    private static int[] numberDefinitions(Quadruples quadruples) {
+        int[] numbers = new int[quadruples.size()];
+        int next = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = quadruples.getDefinedSymbol(i) != -1
+                    || quadruples.getOpcode(i) == Opcode.CALL ? next++ : -1;
+        }
+        return numbers;
+    }
+
+    private static int count(int[] definitionOf) {
+        int count = 0;
+        for (int d : definitionOf) {
+            if (d != -1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * this method changes a set of reaching definitions with the quadruples
+     * of a part of a block. The definitions of a symbol written in that
+     * part are killed once, and only the last one is added.
+     * @param from the index of the first quadruple.
+     * @param to the index after the last quadruple.
+     * @param reaching the definitions that reach the first quadruple, they
+     *                 become the ones after the last one.
+     * @param killed if not null, the definitions killed by the quadruples
+     *               are added to it.
+     */
+    private void transfer(int from, int to, long[] reaching, long[] killed) {
+        Quadruples quadruples = graph.getQuadruples();
+        int written = 0;
+        for (int i = from; i < to; i++) {
+            int symbol = quadruples.getDefinedSymbol(i);
+            if (symbol != -1) {
+                if (lastDefinition[symbol] == -1) {
+                    writtenSymbols[written++] = symbol;
+                }
+                lastDefinition[symbol] = definitionOf[i];
+            }
+        }
+        for (int w = 0; w < written; w++) {
+            int symbol = writtenSymbols[w];
+            for (int other : definitionsOfSymbol[symbol]) {
+                remove(reaching, other);
+                if (killed != null) {
+                    add(killed, other);
+                }
+            }
+            add(reaching, lastDefinition[symbol]);
+            lastDefinition[symbol] = -1;
+        }
+        //the calls are never killed
+        for (int i = from; i < to; i++) {
+            if (quadruples.getOpcode(i) == Opcode.CALL) {
+                add(reaching, definitionOf[i]);
+            }
+        }
+    }
+
+    /**
+     * @param quadruple the index of a quadruple.
+     * @return the definitions that reach the quadruple, before it runs.
+     */
+    public long[] getReaching(int quadruple) {
+        int b = graph.getBlockOf(quadruple);
+        long[] reaching = Arrays.copyOf(getIn(b), words);
+        transfer(graph.getStart(b), quadruple, reaching, null);
+        return reaching;
+    }
+
+    /**
+     * @return the number of definitions, including the initial ones.
+     */
+    public int getDefinitionCount() {
+        return bits;
+    }
+
+    /**
+     * @param definition a definition.
+     * @return the index of the quadruple of the definition, or -1 if it is
+     * an initial definition.
+     */
+    public int getQuadruple(int definition) {
+        return definition < quadrupleDefinitions ? definitions[definition] : -1;
+    }
+
+    /**
+     * @param symbol the id of a symbol.
+     * @return the definition of the value the symbol has when the program
+     * starts.
+     */
+    public int getInitialDefinition(int symbol) {
+        return quadrupleDefinitions + 2 * symbol;
+    }
+
+    /**
+     * @param symbol the id of a symbol.
+     * @return the definition of the unknown value the symbol has when a
+     * function is called.
+     */
+    public int getUnknownDefinition(int symbol) {
+        return quadrupleDefinitions + 2 * symbol + 1;
+    }
+
+    /**
+     * @param definition a definition.
+     * @return the symbol of an initial definition, or -1 if the definition
+     * is made by a quadruple.
+     */
+    public int getSymbolOfInitial(int definition) {
+        return definition < quadrupleDefinitions ? -1
+                : (definition - quadrupleDefinitions) / 2;
+    }
+
+    /**
+     * @param quadruple the index of a quadruple.
+     * @return the definition of the quadruple, or -1 if it defines nothing.
+     */
+    public int getDefinition(int quadruple) {
+        return definitionOf[quadruple];
+    }
+
+    /**
+     * @param symbol the id of a symbol.
+     * @return the definitions that write the symbol, including its initial
+     * definitions but not the calls. The array must not be modified.
+     */
+    public int[] getDefinitionsOf(int symbol) {
+        return symbol < definitionsOfSymbol.length ? definitionsOfSymbol[symbol]
+                : new int[0];
+    }
+}
@@ -0,0 +1,367 @@
+package IR;
+
+import Compiler.CompilerContext;
+import Terminals.Constant;
+import Terminals.ConstantTable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * this class removes the expressions that compute a value already held by
+ * a temporary. It numbers the values of the blocks in the order of the
+ * dominator tree of the program, so an expression computed in a block can
+ * be reused by the blocks it dominates (a global extension of the local
+ * value numbering).
+ *
+ * the symbols aren't in SSA form, so every write of a symbol gives it a new
+ * version and the expressions are looked up with the versions of their
+ * values. When the walk goes down to a block that can also be reached
+ * from other blocks (a join or a loop header), the symbols written by
+ * those blocks get new versions too, and a {@link Opcode#CALL} gives new
+ * versions to all of them. The versions are restored when the walk goes
+ * back up, so the brothers of a block don't see its writes.
+ *
+ * an expression is only removed if its result is a temporary written once
+ * and read only in the same block, then those reads are renamed to the
+ * temporary of the first computation.
+ *
+ * each literal of the input code is its own constant, so the constants are
+ * numbered by their type and value instead of their id.
+ */
+public class ValueNumbering {
+
+    //---------------- attributes -----------------//
+
+    private final Quadruples quadruples;
+    private final ControlFlowGraph graph;
+    //the first constant with the same type and value of each constant
+    private final int[] canonical;
+
+    //current version of each symbol, and of the calls
+    private final int[] version;
+    private int callVersion;
+    private int lastVersion;
+
+    //the quadruple that computes each expression in the current scope
+    private final HashMap<Key, Integer> available = new HashMap<>();
+    //the changes of each scope, undone when the walk leaves it
+    private final ArrayDeque<Runnable> undo = new ArrayDeque<>();
+
+    private final boolean[] renamable;
+    private final int[] renamed;
+    private final boolean[] removed;
+    private int removedCount;
+
+    private Quadruples result;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, it removes the redundant expressions of a
+     * program.
+     * @param quadruples the quadruples of the program.
+     * @param context the compilation of the program.
+     */
+    public ValueNumbering(Quadruples quadruples, CompilerContext context) {
+        this.quadruples = quadruples;
+        this.graph = new ControlFlowGraph(quadruples);
+        this.canonical = findCanonicalConstants(context.getConstantTable());
+        int symbols = quadruples.getSymbolLimit();
+        this.version = new int[symbols];
+        this.renamable = findRenamable(symbols);
+        this.renamed = new int[symbols];
+        Arrays.fill(renamed, Operand.NONE);
+        this.removed = new boolean[quadruples.size()];
+
+        walkDominatorTree();
+        this.result = rewrite();
+    }
+
+    /**
+     * this method finds, for each constant, the first constant of the table
+     * with its type and value.
+     * @param constants the constants of the program.
+     * @return the id of that constant for each constant id.
+     */
+    private static int[] findCanonicalConstants(ConstantTable constants) {
+        int limit = 0;
+        for (int id : constants.table.keySet()) {
+            limit = Math.max(limit, id + 1);
+        }
+        int[] found = new int[limit];
+        HashMap<List<Object>, Integer> first = new HashMap<>();
+        for (int id = 0; id < limit; id++) {
+            Constant c = constants.table.get(id);
+            if (c != null) {
+                Integer previous = first.putIfAbsent(
+                        Arrays.asList(c.getType(), c.getValue()), id);
+                found[id] = previous == null ? id : previous;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * this method finds the temporaries that are written once and only
+     * read after it in the same block.
+     * @param symbols the number of symbols.
+     * @return true for each temporary whose reads can be renamed.
+     */
+    private boolean[] findRenamable(int symbols) {
+        int[] writes = new int[symbols];
+        int[] writtenAt = new int[symbols];
+        for (int i = 0; i < quadruples.size(); i++) {
+            int symbol = quadruples.getDefinedSymbol(i);
+            if (symbol != -1) {
+                writes[symbol]++;
+                writtenAt[symbol] = i;
+            }
+        }
+        boolean[] found = new boolean[symbols];
+        for (int i = 0; i < quadruples.size(); i++) {
+            int resultOperand = quadruples.getResult(i);
+            if (quadruples.getDefinedSymbol(i) != -1
+                    && Operand.kind(resultOperand) == Operand.TEMP) {
+                found[Operand.value(resultOperand)] = writes[Operand.value(resultOperand)] == 1;
+            }
+        }
+        for (int i = 0; i < quadruples.size(); i++) {
+            for (int operand : new int[]{quadruples.getValue1(i), quadruples.getValue2(i)}) {
+                if (!Operand.isSymbol(operand)) {
+                    continue;
+                }
+                int symbol = Operand.value(operand);
+                if (found[symbol] && (i <= writtenAt[symbol]
+                        || graph.getBlockOf(i) != graph.getBlockOf(writtenAt[symbol]))) {
+                    found[symbol] = false;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * this method numbers the blocks going down the dominator tree from
+     * every entry, without recursion.
+     */
+    private void walkDominatorTree() {
+        int[] stack = new int[graph.size()];
+        int[] nextChild = new int[graph.size()];
+        int[] marks = new int[graph.size()];
+        for (int entry : graph.getEntries()) {
+            if (!graph.isReachable(entry)
+                    || graph.getImmediateDominator(entry) != -1) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = entry;
+            marks[entry] = undo.size();
+            enter(entry);
+            while (top > 0) {
+                int b = stack[top - 1];
+                int[] children = graph.getDominatorChildren(b);
+                if (nextChild[b] < children.length) {
+                    int child = children[nextChild[b]++];
+                    stack[top++] = child;
+                    marks[child] = undo.size();
+                    enter(child);
+                } else {
+                    top--;
+                    while (undo.size() > marks[b]) {
+                        undo.pop().run();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * this method numbers the quadruples of a block.
+     * @param block the block, its dominator has already been numbered.
+     */
+    private void enter(int block) {
+        invalidateOtherPaths(block);
+        for (int i = graph.getStart(block); i < graph.getEnd(block); i++) {
+            Opcode opcode = quadruples.getOpcode(i);
+            int resultOperand = quadruples.getResult(i);
+            if (opcode.isExpression() && Operand.isSymbol(resultOperand)
+                    && renamable[Operand.value(resultOperand)]) {
+                Key key = new Key(opcode, operand(quadruples.getValue1(i)),
+                        operand(quadruples.getValue2(i)));
+                Integer first = available.get(key);
+                if (first != null) {
+                    removed[i] = true;
+                    removedCount++;
+                    renamed[Operand.value(resultOperand)] = quadruples.getResult(first);
+                    continue;
+                }
+                available.put(key, i);
+                undo.push(() -> available.remove(key));
+            }
+            int symbol = quadruples.getDefinedSymbol(i);
+            if (symbol != -1) {
+                write(symbol);
+            }
+            if (opcode == Opcode.CALL) {
+                writeAll();
+            }
+        }
+    }
+
+    /**
+     * this method gives new versions to the symbols written by the blocks
+     * that reach a block without going through its immediate dominator.
+     * @param block the block being entered.
+     */
+    private void invalidateOtherPaths(int block) {
+        int dominator = graph.getImmediateDominator(block);
+        int[] predecessors = graph.getPredecessors(block);
+        if (dominator == -1 || (predecessors.length == 1
+                && predecessors[0] == dominator)) {
+            return;
+        }
+        BitSet visited = new BitSet(graph.size());
+        int[] worklist = new int[graph.size()];
+        int top = 0;
+        for (int p : predecessors) {
+            if (p != dominator && graph.isReachable(p) && !visited.get(p)) {
+                visited.set(p);
+                worklist[top++] = p;
+            }
+        }
+        boolean call = false;
+        while (top > 0) {
+            int b = worklist[--top];
+            for (int i = graph.getStart(b); i < graph.getEnd(b); i++) {
+                int symbol = quadruples.getDefinedSymbol(i);
+                if (symbol != -1) {
+                    write(symbol);
+                }
+                call |= quadruples.getOpcode(i) == Opcode.CALL;
+            }
+            for (int p : graph.getPredecessors(b)) {
+                if (p != dominator && graph.isReachable(p) && !visited.get(p)) {
+                    visited.set(p);
+                    worklist[top++] = p;
+                }
+            }
+        }
+        if (call) {
+            writeAll();
+        }
+    }
+
+    /**
+     * this method gives a new version to a symbol.
+     * @param symbol the id of the symbol.
+     */
+    private void write(int symbol) {
+        int old = version[symbol];
+        version[symbol] = ++lastVersion;
+        undo.push(() -> version[symbol] = old);
+    }
+
+    /**
+     * this method gives a new version to all the symbols, after a call.
+     */
+    private void writeAll() {
+        int old = callVersion;
+        callVersion = ++lastVersion;
+        undo.push(() -> callVersion = old);
+    }
+
+    /**
+     * @param operand an operand of an expression.
+     * @return the operand after renaming it, with its current version.
+     */
+    private long operand(int operand) {
+        if (operand != Operand.NONE && Operand.kind(operand) == Operand.CONSTANT) {
+            return (long) Operand.constant(canonical[Operand.value(operand)]) << 32;
+        }
+        if (!Operand.isSymbol(operand)) {
+            return (long) operand << 32;
+        }
+        if (renamed[Operand.value(operand)] != Operand.NONE) {
+            operand = renamed[Operand.value(operand)];
+        }
+        //a symbol changes when it is written or when a function is called
+        int current = Math.max(version[Operand.value(operand)], callVersion);
+        return ((long) operand << 32) | (current & 0xffffffffL);
+    }
+
+    /**
+     * this method writes the program again without the removed quadruples.
+     * @return the new quadruples.
+     */
+    private Quadruples rewrite() {
+        QuadrupleBuilder builder = new QuadrupleBuilder(quadruples.size() - removedCount);
+        for (int i = 0; i < quadruples.size(); i++) {
+            if (!removed[i]) {
+                builder.add(quadruples.getOpcode(i), quadruples.getResult(i),
+                        rename(quadruples.getValue1(i)),
+                        rename(quadruples.getValue2(i)));
+            }
+        }
+        return builder.build();
+    }
+
+    private int rename(int operand) {
+        if (Operand.isSymbol(operand)
+                && renamed[Operand.value(operand)] != Operand.NONE) {
+            return renamed[Operand.value(operand)];
+        }
+        return operand;
+    }
+
+    /**
+     * @return the program without the redundant expressions.
+     */
+    public Quadruples getQuadruples() {
+        return result;
+    }
+
+    /**
+     * @return the number of quadruples removed.
+     */
+    public int getRemoved() {
+        return removedCount;
+    }
+
+    /**
+     * an operation with its two values and their versions, the values of
+     * the commutative operations are sorted.
+     */
+    private static final class Key {
+
+        private final Opcode opcode;
+        private final long value1;
+        private final long value2;
+
+        Key(Opcode opcode, long value1, long value2) {
+            boolean swap = opcode.isCommutative() && value2 < value1;
+            this.opcode = opcode;
+            this.value1 = swap ? value2 : value1;
+            this.value2 = swap ? value1 : value2;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return opcode == other.opcode && value1 == other.value1
+                    && value2 == other.value2;
+        }
+
+        @Override
+        public int hashCode() {
+            return (opcode.ordinal() * 31 + Long.hashCode(value1)) * 31
+                    + Long.hashCode(value2);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package LexicalAnalyzer;
+
+import Terminals.Token;
+
+import java.util.Arrays;
+
+/**
+ * a deterministic finite automaton used by the lexical analyzer to recognize
+ * tokens. The transitions are stored in a dense primitive table indexed by
+ * (state x ASCII character) so moving from one state to the next is a single
+ * array load and never allocates.
+ */
+public class DFA {
+
+    //---------------- attributes -----------------//
+
+    public static final int START = 0;
+    public static final int REJECT = -1;
+    public static final int NO_TOKEN = -1;
+
+    /* number of input classes, one per ASCII character */
+    private static final int ALPHABET = 128;
+    private static final int INITIAL_STATES = 64;
+
+    //state * ALPHABET + character -> next state (or REJECT)
+    private int[] transitions;
+    //state -> id of the token accepted in that state (or NO_TOKEN)
+    private int[] accept;
+    //state -> the token instance accepted in that state
+    private Token[] acceptToken;
+    private int states;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor of the automaton, it only contains the start
+     * state.
+     */
+    public DFA() {
+        this.transitions = new int[INITIAL_STATES * ALPHABET];
+        this.accept = new int[INITIAL_STATES];
+        this.acceptToken = new Token[INITIAL_STATES];
+        Arrays.fill(transitions, REJECT);
+        Arrays.fill(accept, NO_TOKEN);
+        this.states = 0;
+        addState();
+    }
+
+    /**
+     * creates a new state without any transitions.
+     * @return the number of the newly created state.
+     */
+    public int addState() {
+        if (states == accept.length) {
+            int capacity = accept.length * 2;
+            int oldTransitions = transitions.length;
+            int oldAccept = accept.length;
+            transitions = Arrays.copyOf(transitions, capacity * ALPHABET);
+            accept = Arrays.copyOf(accept, capacity);
+            acceptToken = Arrays.copyOf(acceptToken, capacity);
+            Arrays.fill(transitions, oldTransitions, transitions.length, REJECT);
+            Arrays.fill(accept, oldAccept, accept.length, NO_TOKEN);
+        }
+        return states++;
+    }
+
+    /**
+     * this function will break the token string into characters and insert
+     * them into the automaton. moreover, the last state reached by the name
+     * will accept the given token.
+     *
+     * @param s the name of the token.
+     * @param value the value of the token.
+     */
+    public void add(String s, Token value) {
+        int state = START;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            int next = next(state, c);
+            if (next == REJECT) {
+                next = addState();
+                addTransition(state, c, next);
+            }
+            state = next;
+        }
+        setValue(state, value);
+    }
+
+    /**
+     * adds a transition between two states.
+     * @param from the state the transition starts from.
+     * @param c the character that triggers the transition.
+     * @param to the state the transition leads to.
+     */
+    public void addTransition(int from, char c, int to) {
+        if (c < ALPHABET) {
+            transitions[from * ALPHABET + c] = to;
+        }
+    }
+
+    /**
+     * moves from a state to the next one using a character.
+     * @param state the current state.
+     * @param c the character read from the input.
+     * @return the next state, or REJECT if no transition exists.
+     */
+    public int next(int state, char c) {
+        if (c >= ALPHABET) {
+            return REJECT;
+        }
+        return transitions[state * ALPHABET + c];
+    }
+
+    /**
+     * marks a state as accepting the given token.
+     * @param state the state to be marked.
+     * @param value the token accepted by that state.
+     */
+    public void setValue(int state, Token value) {
+        acceptToken[state] = value;
+        accept[state] = value == null ? NO_TOKEN : value.getId();
+    }
+
+    /**
+     * @param state the state to check.
+     * @return the id of the token accepted in that state, or NO_TOKEN.
+     */
+    public int getAcceptId(int state) {
+        return accept[state];
+    }
+
+    public Token getValue(int state) {
+        return acceptToken[state];
+    }
+
+    public int getNumberOfStates() {
+        return states;
+    }
+}
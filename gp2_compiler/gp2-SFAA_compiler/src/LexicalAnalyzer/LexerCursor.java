@@ -0,0 +1,89 @@
+package LexicalAnalyzer;
+
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.TokenDoesNotExistException;
+import Terminals.TokenCursor;
+import Terminals.TokenStream;
+
+/**
+ * a token cursor that tokenizes the source file on demand. Words are only
+ * read from the file when the parser asks for a token that hasn't been
+ * produced yet, and the tokens that were already consumed are dropped, so
+ * the full token list of the file is never kept in memory.
+ */
+public class LexerCursor implements TokenCursor {
+
+    //---------------- attributes -----------------//
+
+    /* consumed tokens are only dropped once there are this many of them, to
+    avoid moving the buffer after every token */
+    private static final int DISCARD_THRESHOLD = 1024;
+
+    private final LexicalAnalyzer lexer;
+    private final SourceReader source;
+    private final TokenStream buffer;
+    private int position;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates a cursor that reads its tokens from a source reader.
+     * @param lexer the lexical analyzer used to tokenize the words.
+     * @param source the reader of the source file.
+     */
+    public LexerCursor(LexicalAnalyzer lexer, SourceReader source) {
+        this.lexer = lexer;
+        this.source = source;
+        this.buffer = new TokenStream();
+        this.position = 0;
+    }
+
+    @Override
+    public boolean fill(int offset) throws AnalyzerExceptions, TokenDoesNotExistException {
+        while (position + offset >= buffer.size()) {
+            if (!source.nextWord()) {
+                return false;
+            }
+            lexer.getTokensInWord(source.getWord(), source.getWordLength(),
+                    buffer, source);
+        }
+        return true;
+    }
+
+    @Override
+    public int getId(int offset) {
+        return buffer.getId(position + offset);
+    }
+
+    @Override
+    public int getExternalId(int offset) {
+        return buffer.getExternalId(position + offset);
+    }
+
+    @Override
+    public int getLine(int offset) {
+        return buffer.getLine(position + offset);
+    }
+
+    @Override
+    public int getColumn(int offset) {
+        return buffer.getColumn(position + offset);
+    }
+
+    @Override
+    public String getName(int offset) {
+        return buffer.getName(position + offset);
+    }
+
+    @Override
+    public void advance() {
+        position++;
+        if (position == buffer.size()) {
+            buffer.clear();
+            position = 0;
+        } else if (position >= DISCARD_THRESHOLD) {
+            buffer.discard(position);
+            position = 0;
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package LexicalAnalyzer;
 
+import Compiler.CompileMetrics;
+import Compiler.CompilerContext;
 import Terminals.*;
 import Terminals.Exception.AnalyzerExceptions;
 import Terminals.Exception.TokenDoesNotExistException;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Scanner;
 
 /**
  * an implementation of a lexical analyzer that given a set of Tokens is able
@@ -18,7 +19,17 @@ public class LexicalAnalyzer {
 
     //---------------- attributes -----------------//
 
-    private Node trie;
+    private static final char[] NUMBER_CHARACTERS =
+            {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '.'};
+
+    /* the automaton doesn't change once it is built, so it is built once
+    and shared by all the lexical analyzers */
+    private static DFA tokenAutomaton;
+
+    private DFA dfa;
+    private SymbolTable symbols;
+    private ConstantTable constants;
+    private CompileMetrics metrics;
     private boolean varFlag = false;
     private boolean initFlag = false;
     private String typeAuxToken;
@@ -52,181 +63,169 @@ public class LexicalAnalyzer {
 
     /**
      * this is the default constructor of the lexical analyzer and it
-     * initializes the trie with the tokens needed to parse the input file.
+     * takes the automaton with the tokens needed to parse the input file.
+     * @param context the compilation where the symbols and constants found
+     *                in the input file are added.
      * @throws TokenDoesNotExistException if a provided token name doesn't
      * exist in the token database.
      */
-    public LexicalAnalyzer() throws TokenDoesNotExistException {
-        trie = new Node(new HashMap<>(), null);
-        for (String s : TokenDatabase.tokenList.values()) {
-            initAdd(s, new Token(s));
-        }
-
-        //Node that will have all of the numbers which also points to itself
-        //memory isn't wasted cuz we're accessing the same node
-        //as long as numbers are being entered, we can continue to add
-        // numbers in an infinite loop until we find another symbol
-        Node number = new Node(null, null);
-
-        HashMap<Character, Node> n = new HashMap<>(){{
-            put('0', number);
-            put('1', number);
-            put('2', number);
-            put('3', number);
-            put('4', number);
-            put('5', number);
-            put('6', number);
-            put('7', number);
-            put('8', number);
-            put('9', number);
-            put('.', number);
-        }};
-
-        number.setNext(n);
-        // add an empty constructor to constant
-        number.getNext().get('0').setValue(new Token(81));
-        number.getNext().get('1').setValue(new Token(81));
-        number.getNext().get('2').setValue(new Token(81));
-        number.getNext().get('3').setValue(new Token(81));
-        number.getNext().get('4').setValue(new Token(81));
-        number.getNext().get('5').setValue(new Token(81));
-        number.getNext().get('6').setValue(new Token(81));
-        number.getNext().get('7').setValue(new Token(81));
-        number.getNext().get('8').setValue(new Token(81));
-        number.getNext().get('9').setValue(new Token(81));
-        number.getNext().get('.').setValue(new Token(81));
-
-        trie.getNext().put('0', number);
-        trie.getNext().put('1', number);
-        trie.getNext().put('2', number);
-        trie.getNext().put('3', number);
-        trie.getNext().put('4', number);
-        trie.getNext().put('5', number);
-        trie.getNext().put('6', number);
-        trie.getNext().put('7', number);
-        trie.getNext().put('8', number);
-        trie.getNext().put('9', number);
-        trie.getNext().put('.', number);
-
+    public LexicalAnalyzer(CompilerContext context) throws TokenDoesNotExistException {
+        symbols = context.getSymbolTable();
+        constants = context.getConstantTable();
+        metrics = context.getMetrics();
+        dfa = getTokenAutomaton();
     }
 
     /**
-     * this function will break the token string into character and insert
-     * them into the trie. moreover, this function will store the value of
-     * the token in the leaf of the name.
-     *
-     * @param s the name of the token.
-     * @param value the value of the token.
+     * this method builds the automaton with the tokens of the token
+     * database the first time it is called.
+     * @return the automaton shared by all the lexical analyzers.
+     * @throws TokenDoesNotExistException if a provided token name doesn't
+     * exist in the token database.
      */
-    private void initAdd(String s, Token value) {
-        Node node = trie;
-        char[] arr = s.toCharArray();
-        char c;
-        for (int i = 0; i < arr.length; i++) {
-            c = arr[i];
-
-            if (node.getNext().containsKey(c)) {
-                node = node.getNext().get(c);
-                if (i == arr.length - 1) {
-                    node.setValue(value);
-                }
-            } else {
-                if (i == arr.length - 1) {
-                    node.getNext().put(c, new Node(new HashMap<>(), value));
-                } else {
-                    node.getNext().put(c, new Node(new HashMap<>(), null));
-                }
-                node = node.getNext().get(c);
-
+    private static synchronized DFA getTokenAutomaton() throws TokenDoesNotExistException {
+        if (tokenAutomaton != null) {
+            return tokenAutomaton;
+        }
+        DFA dfa = new DFA();
+        for (int id = 0; id < TokenDatabase.getNumberOfIds(); id++) {
+            String name = TokenDatabase.getName(id);
+            if (name != null) {
+                dfa.add(name, Token.of(id));
             }
         }
 
+        //state that will accept all of the numbers which also points to
+        //itself. as long as numbers are being entered, we can continue to
+        //loop in this state until we find another symbol
+        int number = dfa.addState();
+        dfa.setValue(number, Token.of(Token.CONSTANTS));
+        for (char c : NUMBER_CHARACTERS) {
+            dfa.addTransition(number, c, number);
+            dfa.addTransition(DFA.START, c, number);
+        }
+        tokenAutomaton = dfa;
+        return dfa;
     }
 
-
     /**
-     * this method parses the input files into an array of tokens.
+     * this method parses the input files into a stream of tokens.
      * @param file the input file
-     * @return an array of tokens generated from tokenizing the input file.
+     * @return a stream of tokens generated from tokenizing the input file.
      * @throws AnalyzerExceptions thrown if a violation to the language
      * lexical format is detected.
      */
-    public ArrayList<Token> getTokens(File file) throws AnalyzerExceptions {
-        Scanner s = null;
-        ArrayList<Token> tokens = new ArrayList<>();
-        int line_num =0;
+    public TokenStream getTokens(File file) throws AnalyzerExceptions {
+        TokenStream tokens = new TokenStream();
+        metrics.begin(CompileMetrics.Phase.LEXING);
         try {
-            s = new Scanner(file);
-            // get string
-            while (s.hasNextLine()) {
-                line_num++;
-                String line = s.nextLine();
-                // for each word in the line
-                // split string by white spaces
-                for (String word : line.split(" ")) {
-                    getTokensInWord(word, tokens, line_num, line);
-                }
+            SourceReader source = new SourceReader(file);
+            // for each word in the file (words are split by white spaces)
+            while (source.nextWord()) {
+                getTokensInWord(source.getWord(), source.getWordLength(),
+                        tokens, source);
             }
-            s.close();
-        } catch (FileNotFoundException | TokenDoesNotExistException e) {
+        } catch (IOException | TokenDoesNotExistException e) {
             e.printStackTrace();
+        } finally {
+            metrics.end(CompileMetrics.Phase.LEXING);
         }
         //printTokens(tokens);
         return tokens;
     }
 
+    /**
+     * this method creates a cursor that tokenizes the input file on demand,
+     * while the tokens are being read.
+     * @param file the input file
+     * @return a cursor over the tokens of the input file.
+     * @throws IOException if the input file couldn't be read.
+     */
+    public TokenCursor stream(File file) throws IOException {
+        return new LexerCursor(this, new SourceReader(file));
+    }
+
+    /**
+     * this method creates a cursor that tokenizes the input file in another
+     * thread, while the tokens already produced are being read. The cursor
+     * must be closed once it isn't read anymore, and this lexical analyzer
+     * must not be used until the input file is read.
+     * @param file the input file
+     * @return a cursor over the tokens of the input file.
+     * @throws IOException if the input file couldn't be read.
+     */
+    public PipelinedCursor pipeline(File file) throws IOException {
+        return new PipelinedCursor(this, new SourceReader(file));
+    }
+
+    /**
+     * this method creates a cursor that tokenizes a source code that is
+     * already in memory, while the tokens are being read.
+     * @param source the source code, from its position to its limit.
+     * @return a cursor over the tokens of the source code.
+     */
+    public TokenCursor stream(ByteBuffer source) {
+        return new LexerCursor(this, new SourceReader(source));
+    }
+
     /**
      * this function parses the tokens in a given word. Moreover, if more
      * than one token were found in the word then they all will be parsed.
-     * @param word the word to parse tokens from.
-     * @param tokens the list that the tokens will be added to.
-     * @param line_num the number of the line being parsed in the file.
-     * @param line the line that is being parsed in the file.
+     * @param arr the characters of the word to parse tokens from.
+     * @param length the number of characters in the word.
+     * @param tokens the stream that the tokens will be added to.
+     * @param source the reader of the file, used to report the line and
+     *               the word being parsed.
      * @throws AnalyzerExceptions if any of language's lexical
      * structure is violated.
      * @throws TokenDoesNotExistException if the no tokens were found in a
      * word.
      */
-    private void getTokensInWord(String word, ArrayList<Token> tokens, int line_num, String line) throws AnalyzerExceptions, TokenDoesNotExistException {
+    void getTokensInWord(char[] arr, int length, TokenStream tokens, SourceReader source) throws AnalyzerExceptions, TokenDoesNotExistException {
 
-        Node currentNode = trie;
-        ArrayList<Token> aux = new ArrayList<>();
-        char[] arr = word.toCharArray();
+        int currentState = DFA.START;
+        int column = source.getWordColumn();
+        int tokenStart = 0;
+        int line_num = source.getLineNumber();
         char c;
         StringBuilder number = new StringBuilder();
 
         /* for every character in the current word */
-        for (int i = 0; i < arr.length; i++) {
+        for (int i = 0; i < length; i++) {
             c = arr[i];
+            if (currentState == DFA.START) {
+                tokenStart = i;
+            }
 
-            /* if it's possible to move from the current node in the trie to
-            this character */
-            if (currentNode.getNext().containsKey(c)) {
+            /* if it's possible to move from the current state in the
+            automaton using this character */
+            int nextState = dfa.next(currentState, c);
+            if (nextState != DFA.REJECT) {
                 // move there
-                currentNode = currentNode.getNext().get(c);
+                currentState = nextState;
                 // if we have a constant, then we add it to a string builder,
                 // to build that constant
-                if (currentNode.getValue() != null && currentNode.getValue().getId() == Token.CONSTANTS) {
+                if (dfa.getAcceptId(currentState) == Token.CONSTANTS) {
                     number.append(c);
                 }
 
-                /* if the current node has a value (the current node is a
-                leaf to one of the tokens) */
-                if (currentNode.getValue() != null) {
-                    // check the value stored in that node:
-                    if (currentNode.getValue().getId() == Token.EQUALS) {
+                /* if the current state accepts a token (the current state
+                is the end of one of the tokens) */
+                if (dfa.getAcceptId(currentState) != DFA.NO_TOKEN) {
+                    // check the token accepted in that state:
+                    if (dfa.getAcceptId(currentState) == Token.EQUALS) {
                         equalsFlag = true;
                     }
-                    if (currentNode.getValue().getId() == Token.SEMICOLON) {
+                    if (dfa.getAcceptId(currentState) == Token.SEMICOLON) {
                         if (equalsFlag && initFlag) {
                             if (sb.toString().matches("[0-9.]+"))
                                 try{
-                                    this.auxVar.setValue(this.sb.toString());
+                                    this.auxVar.setValue(constants, this.sb.toString());
                                 }catch (AnalyzerExceptions e){
                                     throw new AnalyzerExceptions(e.getMessage()
                                             + System.lineSeparator()
                                             + " at line (" + (line_num) + "): "
-                                            + line);
+                                            + source.getLine());
                                 }
                             equalsFlag = false;
                             this.sb = new StringBuilder();
@@ -238,88 +237,88 @@ public class LexicalAnalyzer {
 
                 // check if we're in the last character of the array to see if
                 // we should add the token
-                if (i == arr.length - 1) {
+                if (i == length - 1) {
 
-                    /* make sure that the last character of the node ended
-                    on a leaf node to a token. Otherwise throw an exception*/
-                    if (currentNode.getValue() != null) {
+                    /* make sure that the last character of the word ended
+                    on an accepting state. Otherwise throw an exception*/
+                    if (dfa.getAcceptId(currentState) != DFA.NO_TOKEN) {
 
-                        // check what the value of that node is:
-                        if (currentNode.getValue().getId() == Token.CONSTANTS) {
-                            Constant auxConstant = new Constant(number.toString(), false);
-                            aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        // check what the accepted token is:
+                        if (dfa.getAcceptId(currentState) == Token.CONSTANTS) {
+                            Constant auxConstant = new Constant(constants, number.toString(), false);
+                            tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
                             sb = number;
                             number = new StringBuilder();
-                        } else if (currentNode.getValue().getId() == Token.TRUE){
-                            Constant auxConstant = new Constant("TRUE", false);
-                            aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        } else if (dfa.getAcceptId(currentState) == Token.TRUE){
+                            Constant auxConstant = new Constant(constants, "TRUE", false);
+                            tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
 
-                        } else if( currentNode.getValue().getId() == Token.FALSE){
-                            Constant auxConstant = new Constant("FALSE", false);
-                            aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        } else if( dfa.getAcceptId(currentState) == Token.FALSE){
+                            Constant auxConstant = new Constant(constants, "FALSE", false);
+                            tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
                         }
                         else {
-                            if (currentNode.getValue().getId() == Token.VAR) {
+                            if (dfa.getAcceptId(currentState) == Token.VAR) {
                                 varFlag = true;
                                 initFlag = true;
-                            }else if (currentNode.getValue().getId() == Token.FUNC){
+                            }else if (dfa.getAcceptId(currentState) == Token.FUNC){
                                 funcLevel = FuncLevel.RETURN;
-                            }else if (currentNode.getValue().getId() == Token.OPENING_CURLY){
+                            }else if (dfa.getAcceptId(currentState) == Token.OPENING_CURLY){
                                 funcLevel = FuncLevel.NOT_FUNC;
                                 if(callLevel == CallLevel.OPENING_CURLY){
                                     callLevel = CallLevel.PARAM;
                                 }
-                            }else if (currentNode.getValue().getId() == Token.START){
+                            }else if (dfa.getAcceptId(currentState) == Token.START){
                                 scope = 0;
-                            }else if(currentNode.getValue().getId() == Token.CALL){
+                            }else if(dfa.getAcceptId(currentState) == Token.CALL){
                                 callLevel = CallLevel.NAME;
-                            }else if(currentNode.getValue().getId() == Token.CLOSING_CURLY &&
+                            }else if(dfa.getAcceptId(currentState) == Token.CLOSING_CURLY &&
                                     callLevel == CallLevel.PARAM){
-                                if(SymbolTable.notValidParameters(funcName, auxParameters)){
-                                    if(SymbolTable.problem == SymbolTable.FunctionInfo.WRONG_PARAM_NUM){
-                                        throw new AnalyzerExceptions("Function " + funcName + " passed the wrong number of parameters - "+auxParameters+"\nLine  " + line_num + ": " + line);
+                                if(symbols.notValidParameters(funcName, auxParameters)){
+                                    if(symbols.problem == SymbolTable.FunctionInfo.WRONG_PARAM_NUM){
+                                        throw new AnalyzerExceptions("Function " + funcName + " passed the wrong number of parameters - "+auxParameters+"\nLine  " + line_num + ": " + source.getLine());
                                     }
-                                    else if(SymbolTable.problem == SymbolTable.FunctionInfo.WRONG_PARAM_TYPE){
+                                    else if(symbols.problem == SymbolTable.FunctionInfo.WRONG_PARAM_TYPE){
                                         throw new AnalyzerExceptions(
-                                                "Function " + funcName + " passed the wrong type of parameters \n Line  " + line_num + ": " + line);
+                                                "Function " + funcName + " passed the wrong type of parameters \n Line  " + line_num + ": " + source.getLine());
 
                                     }
-                                    else if(SymbolTable.problem == SymbolTable.FunctionInfo.FUNCTION_AS_PARAM){
+                                    else if(symbols.problem == SymbolTable.FunctionInfo.FUNCTION_AS_PARAM){
                                         throw new AnalyzerExceptions(
-                                                "Function " + funcName + " passed a function as a parameter \n Line  " + line_num + ": " + line);
+                                                "Function " + funcName + " passed a function as a parameter \n Line  " + line_num + ": " + source.getLine());
                                     }
                                 }
                                 callLevel = CallLevel.NOT_CALL;
                             }
 
-                            if (currentNode.getValue().getId() >= Token.DATATYPE_LOW_RANGE
-                                        && currentNode.getValue().getId() <= Token.DATATYPE_HIGH_RANGE ) {
-                                if(varFlag) typeAuxToken = currentNode.getValue().getName();
+                            if (dfa.getAcceptId(currentState) >= Token.DATATYPE_LOW_RANGE
+                                        && dfa.getAcceptId(currentState) <= Token.DATATYPE_HIGH_RANGE ) {
+                                if(varFlag) typeAuxToken = dfa.getValue(currentState).getName();
                                 else if(funcLevel == FuncLevel.RETURN || funcLevel == FuncLevel.PARAM) {
-                                    returnValue = currentNode.getValue().getName();
+                                    returnValue = dfa.getValue(currentState).getName();
                                     if (funcLevel == FuncLevel.RETURN) funcLevel = FuncLevel.NAME;
                                 }
                             }
 
-                            aux.add(currentNode.getValue());
+                            tokens.add(dfa.getAcceptId(currentState), -1, line_num, column + tokenStart);
                         }
-                        currentNode = trie;
+                        currentState = DFA.START;
                     }
                     else {
-                        throw new AnalyzerExceptions("Unknown Token - Expected valid token, but found "+ word +" \nLine " + line_num + ": " + line);
+                        throw new AnalyzerExceptions("Unknown Token - Expected valid token, but found "+ source.getWordString() +" \nLine " + line_num + ": " + source.getLine());
                     }
                 }
             }
-            // if we are on a leaf node to one token
+            // if we are on an accepting state of one token
             else {
 
-                if (currentNode.getValue() != null) {
+                if (dfa.getAcceptId(currentState) != DFA.NO_TOKEN) {
                     // check the token :
 
-                    if (currentNode.getValue().getId() == Token.HASHTAG) {
+                    if (dfa.getAcceptId(currentState) == Token.HASHTAG) {
                         // get symbol name
                         StringBuilder varName = new StringBuilder();
-                        for (; i < arr.length; i++) {
+                        for (; i < length; i++) {
                             c = arr[i];
                             varName.append(c);
                         }
@@ -327,13 +326,13 @@ public class LexicalAnalyzer {
                         /*if it's a variable declaration*/
                         if (varFlag && typeAuxToken != null) {
                             // add the variable token
-                            if(-1!=SymbolTable.checkSymbolExists(varName.toString(), true, scope)){
-                                throw new AnalyzerExceptions("Variable " + varName.toString() + " already declared - \nLine " + line_num+ ": " + line);
+                            if(-1!=symbols.checkSymbolExists(varName.toString(), true, scope)){
+                                throw new AnalyzerExceptions("Variable " + varName.toString() + " already declared - \nLine " + line_num+ ": " + source.getLine());
                             }
                             // adding scompe name to variable
                             varName.append(scope);
-                            auxVar = new Variable(varName.toString(), typeAuxToken, scope);
-                            aux.add(new Token(Token.SYMBOLS , auxVar.getId()));
+                            auxVar = new Variable(symbols, varName.toString(), typeAuxToken, scope);
+                            tokens.add(Token.SYMBOLS, auxVar.getId(), line_num, column + tokenStart);
                             varFlag = false;
                             typeAuxToken = null;
                         } else {
@@ -341,7 +340,7 @@ public class LexicalAnalyzer {
                                 if(funcLevel == FuncLevel.NAME){
                                     String nameFunc = varName.toString();
 
-                                    func = new  Function(nameFunc, returnValue);
+                                    func = new  Function(symbols, nameFunc, returnValue);
                                     scope = func.getId();
                                 }else if(funcLevel == FuncLevel.PARAM){
                                     func.addParameter(varName.toString() + scope, returnValue, scope);
@@ -351,19 +350,19 @@ public class LexicalAnalyzer {
 
                             if(funcLevel==FuncLevel.NOT_FUNC
                                     || funcLevel==FuncLevel.PARAM){ //Var
-                                varId = SymbolTable.checkSymbolExists(varName.toString(), true, scope);
+                                varId = symbols.checkSymbolExists(varName.toString(), true, scope);
                             }else{
-                                varId = SymbolTable.checkSymbolExists(varName.toString(), false, scope);
+                                varId = symbols.checkSymbolExists(varName.toString(), false, scope);
                                 funcLevel = FuncLevel.PARAM;
                             }
 
                             if(callLevel != CallLevel.NOT_CALL){
                                 if(callLevel == CallLevel.NAME){
                                     funcName = varName.toString();
-                                    if(!SymbolTable.checkIfFunctionExists(varName.toString())){
-                                        throw new AnalyzerExceptions("Function " + varName.toString() + " is not declared - \nLine " + line_num+ ": " + line);
+                                    if(!symbols.checkIfFunctionExists(varName.toString())){
+                                        throw new AnalyzerExceptions("Function " + varName.toString() + " is not declared - \nLine " + line_num+ ": " + source.getLine());
                                     }else{
-                                        varId = SymbolTable.checkSymbolExists(varName.toString(), false, scope);
+                                        varId = symbols.checkSymbolExists(varName.toString(), false, scope);
                                     }
                                     callLevel = CallLevel.OPENING_CURLY;
                                 }else if(callLevel == CallLevel.PARAM){
@@ -374,117 +373,116 @@ public class LexicalAnalyzer {
 
 
                             if(varId != -1){
-                                aux.add(new Token(Token.SYMBOLS, SymbolTable.table.get(varId).getId()));
+                                tokens.add(Token.SYMBOLS, symbols.table.get(varId).getId(), line_num, column + tokenStart);
                             }else{
                                 //throw variable not declared exception
-                                throw new AnalyzerExceptions("Variable " + varName.toString() + " is not declared - \nLine " + line_num+ ": " + line);
+                                throw new AnalyzerExceptions("Variable " + varName.toString() + " is not declared - \nLine " + line_num+ ": " + source.getLine());
                             }
 
                         }
                         break;
 
                     // if it is a constant
-                    } else if (currentNode.getValue().getId() == Token.CONSTANTS) {
+                    } else if (dfa.getAcceptId(currentState) == Token.CONSTANTS) {
                         // add constant to the constant table
 
-                        Constant auxConstant = new Constant(number.toString(), false);
-                        aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        Constant auxConstant = new Constant(constants, number.toString(), false);
+                        tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
                         sb = number;
                         number = new StringBuilder();
                         i--;
-                        currentNode = trie;
+                        currentState = DFA.START;
                     }
                     // if it is a ' then store what comes after as a char
-                    else if (currentNode.getValue().getId() == Token.APOSTROPHE) {
+                    else if (dfa.getAcceptId(currentState) == Token.APOSTROPHE) {
 
                         StringBuilder char_name = new StringBuilder();
 
-                        while (i < arr.length && c != '\'') {
+                        while (i < length && c != '\'') {
                             c = arr[i++];
                             char_name.append(c);
-                            if (i < arr.length)
+                            if (i < length)
                                 c = arr[i];
                         }
-                        Constant auxConstant = new Constant(char_name.toString(), true);
-                        aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        Constant auxConstant = new Constant(constants, char_name.toString(), true);
+                        tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
 
                         sb = new StringBuilder();
                         this.sb.append("'" + char_name);
 
-                        currentNode = trie;
-                    } else if (currentNode.getValue().getId() == Token.TRUE) {
-                        Constant auxConstant = new Constant("TRUE", false);
-                        aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        currentState = DFA.START;
+                    } else if (dfa.getAcceptId(currentState) == Token.TRUE) {
+                        Constant auxConstant = new Constant(constants, "TRUE", false);
+                        tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
                         i--;
-                        currentNode = trie;
-                    } else if (currentNode.getValue().getId() == Token.FALSE) {
-                        Constant auxConstant = new Constant("FALSE", false);
-                        aux.add(new Token(Token.CONSTANTS, auxConstant.getId()));
+                        currentState = DFA.START;
+                    } else if (dfa.getAcceptId(currentState) == Token.FALSE) {
+                        Constant auxConstant = new Constant(constants, "FALSE", false);
+                        tokens.add(Token.CONSTANTS, auxConstant.getId(), line_num, column + tokenStart);
                         i--;
-                        currentNode = trie;
+                        currentState = DFA.START;
                     } else { // if it's any other token then add it
-                        if (currentNode.getValue().getId() == Token.VAR) {
+                        if (dfa.getAcceptId(currentState) == Token.VAR) {
                             varFlag = true;
                             initFlag = true;
-                        } else if (currentNode.getValue().getId() == Token.FUNC){
+                        } else if (dfa.getAcceptId(currentState) == Token.FUNC){
                             funcLevel = FuncLevel.RETURN;
-                        }else if (currentNode.getValue().getId() == Token.OPENING_CURLY){
+                        }else if (dfa.getAcceptId(currentState) == Token.OPENING_CURLY){
                             funcLevel = FuncLevel.NOT_FUNC;
                             if(callLevel == CallLevel.OPENING_CURLY){
                                 callLevel = CallLevel.PARAM;
                             }
-                        }else if(currentNode.getValue().getId() == Token.CLOSING_CURLY &&
+                        }else if(dfa.getAcceptId(currentState) == Token.CLOSING_CURLY &&
                                 callLevel == CallLevel.PARAM){
-                            if(SymbolTable.notValidParameters(funcName, auxParameters)){
-                                if(SymbolTable.problem == SymbolTable.FunctionInfo.WRONG_PARAM_NUM){
-                                    throw new AnalyzerExceptions("Function " + funcName + " passed the wrong number of parameters - "+auxParameters+"\nLine  " + line_num + ": " + line);
+                            if(symbols.notValidParameters(funcName, auxParameters)){
+                                if(symbols.problem == SymbolTable.FunctionInfo.WRONG_PARAM_NUM){
+                                    throw new AnalyzerExceptions("Function " + funcName + " passed the wrong number of parameters - "+auxParameters+"\nLine  " + line_num + ": " + source.getLine());
                                 }
-                                else if(SymbolTable.problem == SymbolTable.FunctionInfo.WRONG_PARAM_TYPE){
+                                else if(symbols.problem == SymbolTable.FunctionInfo.WRONG_PARAM_TYPE){
                                     throw new AnalyzerExceptions(
-                                            "Function " + funcName + " passed the wrong type of parameters \n Line  " + line_num + ": " + line);
+                                            "Function " + funcName + " passed the wrong type of parameters \n Line  " + line_num + ": " + source.getLine());
 
                                 }
-                                else if(SymbolTable.problem == SymbolTable.FunctionInfo.FUNCTION_AS_PARAM){
+                                else if(symbols.problem == SymbolTable.FunctionInfo.FUNCTION_AS_PARAM){
                                     throw new AnalyzerExceptions(
-                                            "Function " + funcName + " passed a function as a parameter \n Line  " + line_num + ": " + line);
+                                            "Function " + funcName + " passed a function as a parameter \n Line  " + line_num + ": " + source.getLine());
                                 }
                             }
                             callLevel = CallLevel.NOT_CALL;
                         }
-                        if (currentNode.getValue().getId() >= Token.DATATYPE_LOW_RANGE
-                                && currentNode.getValue().getId() <= Token.DATATYPE_HIGH_RANGE) {
+                        if (dfa.getAcceptId(currentState) >= Token.DATATYPE_LOW_RANGE
+                                && dfa.getAcceptId(currentState) <= Token.DATATYPE_HIGH_RANGE) {
 
-                            if(varFlag) typeAuxToken = currentNode.getValue().getName();
+                            if(varFlag) typeAuxToken = dfa.getValue(currentState).getName();
 
                             else if(funcLevel == FuncLevel.RETURN || funcLevel == FuncLevel.PARAM){
-                                returnValue = currentNode.getValue().getName();
+                                returnValue = dfa.getValue(currentState).getName();
                                 if(funcLevel == FuncLevel.RETURN) funcLevel = FuncLevel.NAME;
                             }
                         }
-                        aux.add(currentNode.getValue());
-                        currentNode = trie;
+                        tokens.add(dfa.getAcceptId(currentState), -1, line_num, column + tokenStart);
+                        currentState = DFA.START;
                         i--;
                     }
                 } else {
-                    // if we can't move on, but we're not at a leaf, throw an
-                    // exception
-                    throw new AnalyzerExceptions("Unknown Token - Expected valid token, but found "+ word +" \nLine " + line_num + ": " + line);
+                    // if we can't move on, but we're not on an accepting state,
+                    // throw an exception
+                    throw new AnalyzerExceptions("Unknown Token - Expected valid token, but found "+ source.getWordString() +" \nLine " + line_num + ": " + source.getLine());
 
                 }
             }
         }
-        tokens.addAll(aux);
     }
 
     /**
-     * this function prints the tokens array in a readable format
-     * @param tokens the tokens array to be printed
+     * this function prints the token stream in a readable format
+     * @param tokens the token stream to be printed
      */
-    public void printTokens(ArrayList<Token> tokens) {
-        for (Token t : tokens) {
-            System.out.print(t.getId() + " : " + t.getName());
-            if (t.getExternalId() != -1){
-                System.out.println(" ("+t.getExternalId()+")");
+    public void printTokens(TokenStream tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            System.out.print(tokens.getId(i) + " : " + tokens.getName(i));
+            if (tokens.getExternalId(i) != -1){
+                System.out.println(" ("+tokens.getExternalId(i)+")");
             }else{
                 System.out.println("");
             }
@@ -0,0 +1,217 @@
+package LexicalAnalyzer;
+
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.TokenDoesNotExistException;
+import Terminals.TokenCursor;
+import Terminals.TokenDatabase;
+import Terminals.TokenStream;
+
+/**
+ * a token cursor whose tokens are produced by the lexical analyzer in
+ * another thread, so the source file is tokenized while the parser is
+ * consuming the tokens that were already produced.
+ *
+ * the tokens pass through a bounded ring buffer: the lexer thread blocks
+ * when the buffer is full and the parser blocks when it is empty. Both
+ * sides move the tokens in batches, so the lock is only taken once every
+ * {@link #BATCH} tokens and not once per token. If the lexer finds an
+ * error, it is thrown to the parser when it reaches the tokens that
+ * couldn't be produced, the same as with {@link LexerCursor}.
+ */
+public class PipelinedCursor implements TokenCursor, AutoCloseable {
+
+    //---------------- attributes -----------------//
+
+    /* the number of tokens the ring can hold, it must be a power of two */
+    private static final int CAPACITY = 1 << 14;
+    /* the number of tokens each side moves before synchronizing */
+    private static final int BATCH = 256;
+
+    private final int[] ids = new int[CAPACITY];
+    private final int[] externalIds = new int[CAPACITY];
+    private final int[] lines = new int[CAPACITY];
+    private final int[] columns = new int[CAPACITY];
+
+    //tokens produced and consumed since the start, guarded by this
+    private long produced;
+    private long consumed;
+    private boolean finished;
+    private boolean closed;
+    private Exception failure;
+
+    //parser side: the next token and the tokens known to be produced
+    private long position;
+    private long available;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates the cursor and starts the thread that tokenizes the source.
+     * @param lexer the lexical analyzer used to tokenize the words, it must
+     *              not be used by other threads until the source is read.
+     * @param source the reader of the source file.
+     */
+    PipelinedCursor(LexicalAnalyzer lexer, SourceReader source) {
+        Thread thread = new Thread(() -> produce(lexer, source), "lexer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * this method tokenizes the source and puts its tokens in the ring, it
+     * runs in the lexer thread.
+     * @param lexer the lexical analyzer used to tokenize the words.
+     * @param source the reader of the source file.
+     */
+    private void produce(LexicalAnalyzer lexer, SourceReader source) {
+        TokenStream batch = new TokenStream(BATCH * 2);
+        Exception error = null;
+        try {
+            while (source.nextWord()) {
+                lexer.getTokensInWord(source.getWord(),
+                        source.getWordLength(), batch, source);
+                if (batch.size() >= BATCH) {
+                    if (!put(batch)) {
+                        return;
+                    }
+                    batch.clear();
+                }
+            }
+        } catch (Exception | StackOverflowError e) {
+            error = e instanceof Exception ? (Exception) e
+                    : new RuntimeException(e);
+        }
+        // the tokens before the error are still delivered
+        if (put(batch)) {
+            synchronized (this) {
+                finished = true;
+                failure = error;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * this method copies a batch of tokens into the ring, waiting for space
+     * when the ring is full.
+     * @param batch the tokens to be copied.
+     * @return false if the cursor was closed and the lexer has to stop.
+     */
+    private synchronized boolean put(TokenStream batch) {
+        int i = 0;
+        while (i < batch.size()) {
+            while (produced - consumed == CAPACITY && !closed) {
+                waitForOtherSide();
+            }
+            if (closed) {
+                return false;
+            }
+            int free = (int) (CAPACITY - (produced - consumed));
+            int end = Math.min(batch.size(), i + free);
+            for (; i < end; i++) {
+                int slot = (int) (produced++ & (CAPACITY - 1));
+                ids[slot] = batch.getId(i);
+                externalIds[slot] = batch.getExternalId(i);
+                lines[slot] = batch.getLine(i);
+                columns[slot] = batch.getColumn(i);
+            }
+            notifyAll();
+        }
+        return !closed;
+    }
+
+    @Override
+    public boolean fill(int offset) throws AnalyzerExceptions, TokenDoesNotExistException {
+        if (position + offset < available) {
+            return true;
+        }
+        synchronized (this) {
+            while (produced <= position + offset && !finished && !closed) {
+                waitForOtherSide();
+            }
+            if (!finished && closed) {
+                throw new IllegalStateException("the token cursor is closed");
+            }
+            available = produced;
+            if (position + offset < available) {
+                return true;
+            }
+        }
+        if (failure instanceof AnalyzerExceptions) {
+            throw (AnalyzerExceptions) failure;
+        } else if (failure instanceof TokenDoesNotExistException) {
+            throw (TokenDoesNotExistException) failure;
+        } else if (failure != null) {
+            throw new RuntimeException(failure);
+        }
+        return false;
+    }
+
+    @Override
+    public int getId(int offset) {
+        return ids[slot(offset)];
+    }
+
+    @Override
+    public int getExternalId(int offset) {
+        return externalIds[slot(offset)];
+    }
+
+    @Override
+    public int getLine(int offset) {
+        return lines[slot(offset)];
+    }
+
+    @Override
+    public int getColumn(int offset) {
+        return columns[slot(offset)];
+    }
+
+    @Override
+    public String getName(int offset) {
+        return TokenDatabase.getName(getId(offset));
+    }
+
+    @Override
+    public void advance() {
+        position++;
+        // give the space back to the lexer once a batch has been read
+        if (position - consumed >= BATCH || position == available) {
+            synchronized (this) {
+                consumed = position;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * stops the lexer thread if it is still running, this must be called
+     * when the parser stops reading before the end of the tokens.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * @param offset the distance from the current token.
+     * @return the position of the token in the ring.
+     */
+    private int slot(int offset) {
+        return (int) ((position + offset) & (CAPACITY - 1));
+    }
+
+    /**
+     * waits until the other side of the ring moves, the caller must hold
+     * the lock of the cursor.
+     */
+    private void waitForOtherSide() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            closed = true;
+        }
+    }
+}
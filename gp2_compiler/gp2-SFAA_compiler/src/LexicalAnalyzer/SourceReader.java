@@ -0,0 +1,201 @@
+package LexicalAnalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * a reader that splits a source file into words (separated by white spaces)
+ * while keeping track of the line number of every word.
+ *
+ * the file is memory mapped and scanned byte by byte, ASCII bytes are copied
+ * directly into a reusable buffer so reading a word doesn't allocate. Only
+ * the words that contain non ASCII characters are decoded as UTF-8.
+ */
+public class SourceReader {
+
+    //---------------- attributes -----------------//
+
+    private static final int INITIAL_WORD_SIZE = 64;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    private int lineNumber;
+    private int lineStart;
+    private boolean atLineStart;
+
+    private int wordStart;
+    private char[] word;
+    private int wordLength;
+
+    //---------------- methods -----------------//
+
+    /**
+     * creates a reader by memory mapping the given file.
+     * @param file the source file to be read.
+     * @throws IOException if the file couldn't be opened or mapped.
+     */
+    public SourceReader(File file) throws IOException {
+        this(map(file));
+    }
+
+    /**
+     * creates a reader over a buffer containing the source code.
+     * @param buffer the source code, it will be read from its current
+     *               position until its limit.
+     */
+    public SourceReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+        this.lineNumber = 0;
+        this.lineStart = position;
+        this.atLineStart = true;
+        this.word = new char[INITIAL_WORD_SIZE];
+        this.wordLength = 0;
+    }
+
+    /**
+     * maps the whole file into memory.
+     * @param file the file to be mapped.
+     * @return a read only buffer with the file content.
+     * @throws IOException if the file couldn't be opened or mapped.
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File " + file.getName()
+                        + " is too large to be compiled");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+    }
+
+    /**
+     * moves the reader to the next word in the source.
+     * @return true if a word was found, false if the end of the source was
+     * reached.
+     */
+    public boolean nextWord() {
+        while (position < limit) {
+            if (atLineStart) {
+                lineNumber++;
+                lineStart = position;
+                atLineStart = false;
+            }
+            byte b = buffer.get(position);
+            if (b == '\n' || b == '\r') {
+                position++;
+                if (b == '\r' && position < limit && buffer.get(position) == '\n') {
+                    position++;
+                }
+                atLineStart = true;
+            } else if (b == ' ') {
+                position++;
+            } else {
+                readWord();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * copies the word starting at the current position into the word
+     * buffer.
+     */
+    private void readWord() {
+        wordStart = position;
+        wordLength = 0;
+        boolean ascii = true;
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == ' ' || b == '\n' || b == '\r') {
+                break;
+            }
+            if (b < 0) {
+                ascii = false;
+            }
+            if (wordLength == word.length) {
+                word = Arrays.copyOf(word, word.length * 2);
+            }
+            word[wordLength++] = (char) b;
+            position++;
+        }
+        if (!ascii) {
+            String decoded = decode(wordStart, position);
+            wordLength = decoded.length();
+            decoded.getChars(0, wordLength, word, 0);
+        }
+    }
+
+    /**
+     * decodes a section of the source as UTF-8.
+     * @param start the position of the first byte.
+     * @param end the position after the last byte.
+     * @return the decoded string.
+     */
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * the characters of the current word. Only the first
+     * {@link #getWordLength()} characters are valid, the array is reused
+     * between words.
+     * @return the buffer containing the current word.
+     */
+    public char[] getWord() {
+        return word;
+    }
+
+    public int getWordLength() {
+        return wordLength;
+    }
+
+    /**
+     * @return the column of the first character of the current word
+     * (starting from 1).
+     */
+    public int getWordColumn() {
+        return wordStart - lineStart + 1;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * creates a string with the current word. This should only be used
+     * when reporting errors.
+     * @return the current word.
+     */
+    public String getWordString() {
+        return new String(word, 0, wordLength);
+    }
+
+    /**
+     * creates a string with the line of the current word. This should only
+     * be used when reporting errors.
+     * @return the current line.
+     */
+    public String getLine() {
+        int end = lineStart;
+        while (end < limit && buffer.get(end) != '\n' && buffer.get(end) != '\r') {
+            end++;
+        }
+        return decode(lineStart, end);
+    }
+}
@@ -1,12 +1,13 @@
 package MIPS;
+import Compiler.CompileMetrics;
+import Compiler.CompilerContext;
 import Grammar.*;
-import TAC.*;
+import IR.*;
 import Terminals.*;
 import Tree.*;
 import java.io.*;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.regex.Pattern;
 
 import static Terminals.Token.*;
@@ -34,15 +35,46 @@ public class AssemblyGenerator {
     private StringBuilder sb = new StringBuilder();
 
     private File file;
-    private FileWriter fw;
+    private Writer fw;
+    private SymbolTable symbols;
+    private ConstantTable constants;
+    private CompileMetrics metrics;
+    private int instructions = 0;
 
     /**
      * Constructor for the class. creates the necessary objects for generating the MIPS assembly.
+     * @param context The compilation whose symbols and constants are used by the TAC.
      * @throws IOException If the file could not be opened.
      */
-    public AssemblyGenerator() throws IOException {
-        this.file = new File("../Resources/compiled_file.asm");
-        this.fw = new FileWriter(file.getName(), false);
+    public AssemblyGenerator(CompilerContext context) throws IOException {
+        this(context, new File(new File("../Resources/compiled_file.asm").getName()));
+    }
+
+    /**
+     * Constructor for the class that writes the MIPS assembly to a given file.
+     * @param context The compilation whose symbols and constants are used by the TAC.
+     * @param file The file where the MIPS assembly is written.
+     * @throws IOException If the file could not be opened.
+     */
+    public AssemblyGenerator(CompilerContext context, File file) throws IOException {
+        this.symbols = context.getSymbolTable();
+        this.constants = context.getConstantTable();
+        this.metrics = context.getMetrics();
+        this.file = file;
+        this.fw = new FileWriter(file, false);
+    }
+
+    /**
+     * Constructor for the class that writes the MIPS assembly to a writer, the writer is closed once the assembly
+     * is generated.
+     * @param context The compilation whose symbols and constants are used by the TAC.
+     * @param writer The writer that receives the MIPS assembly.
+     */
+    public AssemblyGenerator(CompilerContext context, Writer writer) {
+        this.symbols = context.getSymbolTable();
+        this.constants = context.getConstantTable();
+        this.metrics = context.getMetrics();
+        this.fw = writer;
     }
 
     private final Pattern pattern = Pattern.compile("-?\\d+(\\.\\d+)?");
@@ -51,15 +83,21 @@ public class AssemblyGenerator {
      * Public method for generating the MIPS assembly
      * @param given_tac The TAC provided to generate the MIPS assembly from
      */
-    public void convertTacToMIPS(ArrayList<TAC> given_tac){
-        generateAssemblyFile(given_tac);
+    public void convertTacToMIPS(Quadruples given_tac){
+        metrics.begin(CompileMetrics.Phase.ASSEMBLY);
+        try {
+            generateAssemblyFile(given_tac);
+        } finally {
+            metrics.end(CompileMetrics.Phase.ASSEMBLY);
+        }
+        metrics.add(CompileMetrics.Counter.INSTRUCTIONS, instructions);
     }
 
     /**
      * Private method for generating the MIPS assembly. Writes the output to file.
      * @param given_tac The TAC provided to generate the MIPS assembly from
      */
-    private void generateAssemblyFile(ArrayList<TAC> given_tac){
+    private void generateAssemblyFile(Quadruples given_tac){
         try {
 
             writeVariables();
@@ -81,148 +119,158 @@ public class AssemblyGenerator {
      * @param given_tac The TAC provided to generate the MIPS assembly from
      * @throws IOException If the file could not be written to.
      */
-    private void writeCode(ArrayList<TAC> given_tac) throws IOException {
-
-        for (TAC tac: given_tac) {
-            if (tac.getOperation() != null){
-                String op = tac.getOperation().getName();
+    private void writeCode(Quadruples given_tac) throws IOException {
 
-                switch (op){
-                    case BLOCK_START:
-                        sb.append("Label");
-                        sb.append(ConstantTable.table.get(tac.getResult().getExternalId()).getValue()).append(":\n");
+        Quadruples.Cursor tac = given_tac.cursor();
+        while (tac.next()) {
+            switch (tac.getOpcode()){
+                case LABEL:
+                    sb.append("Label");
+                    sb.append(Operand.value(tac.getResult())).append(":\n");
 
-                        break;
+                    break;
 
-                    case GOTO:
-                        sb.append("\t").append(jump).append(" Label").append(ConstantTable.table.get(tac.getResult().getExternalId()).getValue()).append("\n");
-                        break;
+                case GOTO:
+                    sb.append("\t").append(jump).append(" Label").append(Operand.value(tac.getResult())).append("\n");
+                    break;
 
-                    case RETURN:
-                        sb.append("\tjr $ra\n");
-                        break;
+                case RETURN:
+                    sb.append("\tjr $ra\n");
+                    break;
 
-                    case "call":
-                        sb.append("\tjal Label");
-                        sb.append(ConstantTable.table.get(tac.getResult().getExternalId()).getValue()).append("\n");
-                        break;
+                case CALL:
+                    sb.append("\tjal Label");
+                    sb.append(Operand.value(tac.getResult())).append("\n");
+                    break;
 
-                    case GT:
-                        sb.append('\t').append("sgt ");
+                case GT:
+                    sb.append('\t').append("sgt ");
 
-                        sb.append("$t").append((SymbolTable.table.get(tac.getResult().getExternalId()).getId() - 1)).append(" , ");
-                        writeValue1ComparisonCondition(tac);
-                        writeValue2ComparisonCondition(tac);
-                        break;
+                    sb.append("$t").append(register(tac.getResult())).append(" , ");
+                    writeValue1ComparisonCondition(tac.getValue1());
+                    writeValue2ComparisonCondition(tac.getValue2());
+                    break;
 
-                    case LT:
-                        sb.append('\t').append("slt ");
+                case LT:
+                    sb.append('\t').append("slt ");
 
-                        sb.append("$t").append((SymbolTable.table.get(tac.getResult().getExternalId()).getId() - 1)).append(" , ");
-                        writeValue1ComparisonCondition(tac);
-                        writeValue2ComparisonCondition(tac);
+                    sb.append("$t").append(register(tac.getResult())).append(" , ");
+                    writeValue1ComparisonCondition(tac.getValue1());
+                    writeValue2ComparisonCondition(tac.getValue2());
 
-                        break;
+                    break;
 
-                    case IF:
-                        sb.append('\t').append("blt ");
-                        sb.append("$t").append((SymbolTable.table.get(tac.getValue1().getExternalId()).getId() - 1)).append(" , 1 , ");
-                        sb.append("Label").append(ConstantTable.table.get(tac.getResult().getExternalId()).getValue()).append(" \n");
+                case IF:
+                    sb.append('\t').append("blt ");
+                    sb.append("$t").append(register(tac.getValue1())).append(" , 1 , ");
+                    sb.append("Label").append(Operand.value(tac.getResult())).append(" \n");
 
-                        break;
+                    break;
 
-                    case PLUS:
-                        sb.append("\tadd ");
-                        sb.append("$t").append((SymbolTable.table.get(tac.getResult().getExternalId()).getId() - 1)).append(" , ");
+                case PLUS:
+                    sb.append("\tadd ");
+                    sb.append("$t").append(register(tac.getResult())).append(" , ");
+                    writeValue1ComparisonCondition(tac.getValue1());
+                    writeValue2ComparisonCondition(tac.getValue2());
 
-                        //check if value1 is either a constant or a symbol
-                        if ("symbol".equals(tac.getValue1().getName())){
-                            sb.append("$t").append((SymbolTable.table.get(tac.getValue1().getExternalId()).getId() - 1)).append(" , ");
-                        }else{
-                            sb.append(ConstantTable.table.get(tac.getValue1().getExternalId()).getValue()).append(" , ");
-                        }
+                    break;
 
-                        //check if value2 is either a constant or a symbol
-                        if ("symbol".equals(tac.getValue2().getName())){
-                            sb.append("$t").append((SymbolTable.table.get(tac.getValue2().getExternalId()).getId() - 1)).append(" \n");
-                        }else{
-                            sb.append(ConstantTable.table.get(tac.getValue2().getExternalId()).getValue()).append(" \n");
-                        }
+                case MINUS:
 
-                        break;
+                    sb.append("\tsub ");
+                    sb.append("$t").append(register(tac.getResult())).append(" , ");
+                    writeValue1ComparisonCondition(tac.getValue1());
+                    writeValue2ComparisonCondition(tac.getValue2());
 
-                    case MINUS:
+                    break;
 
-                        sb.append("\tsub ");
-                        sb.append("$t").append((SymbolTable.table.get(tac.getResult().getExternalId()).getId() - 1)).append(" , ");
+                case COPY:
+                    //an assignation
+                    sb.append('\t').append(load_address);
 
-                        //check if value1 is either a constant or a symbol
-                        if ("symbol".equals(tac.getValue1().getName())){
-                            sb.append("$t").append((SymbolTable.table.get(tac.getValue1().getExternalId()).getId() - 1)).append(" , ");
-                        }else{
-                            sb.append(ConstantTable.table.get(tac.getValue1().getExternalId()).getValue()).append(" , ");
-                        }
+                    //check if the destination variable needs to be a 'v' register.
+                    if(isReturnRegister(tac.getResult())){
+                        sb.append(" $v").append(symbols.table.get(Operand.value(tac.getResult())).getName().charAt(0)).append(" , ");
+                    }else {
+                        sb.append(" $t").append(register(tac.getResult())).append(" , ");
+                    }
 
-                        //check if value2 is either a constant or a symbol
-                        if ("symbol".equals(tac.getValue2().getName())){
-                            sb.append("$t").append((SymbolTable.table.get(tac.getValue2().getExternalId()).getId() - 1)).append(" \n");
-                        }else{
-                            sb.append(ConstantTable.table.get(tac.getValue2().getExternalId()).getValue()).append(" \n");
+                    if (Operand.isSymbol(tac.getValue1())){
+                        //check if the variable we are assigning needs to be a 'v' register.
+                        if(isReturnRegister(tac.getValue1())){
+                            sb.append(" ($v").append(symbols.table.get(Operand.value(tac.getValue1())).getName().charAt(0)).append(")\n");
+                        }else {
+                            sb.append(" ($t").append(register(tac.getValue1())).append(")\n");
                         }
+                    }else{
+                        sb.append(constants.table.get(Operand.value(tac.getValue1())).getValue()).append("\n");
+                    }
+                    break;
+            }
+            writeInstructions();
+        }
+    }
 
-                        break;
-                }
-            }else{
-                //else, is an assignation
-                sb.append('\t').append(load_address);
-
-                //check if the destination variable needs to be a 'v' register.
-                if(function_var_counter != 0 && SymbolTable.table.get(tac.getResult().getExternalId()).getName().contains("return") && pattern.matcher(SymbolTable.table.get(tac.getResult().getExternalId()).getName().substring(0,1)).matches()){
-                    sb.append(" $v").append(SymbolTable.table.get(tac.getResult().getExternalId()).getName().charAt(0)).append(" , ");
-                }else {
-                    sb.append(" $t").append((SymbolTable.table.get(tac.getResult().getExternalId()).getId() - 1)).append(" , ");
-                }
+    /**
+     * Gives the number of the 't' register of a symbol, the registers follow the ids of the symbol table
+     * @param operand The symbol operand of a quadruple
+     * @return The number of the register
+     */
+    private int register(int operand) {
+        return Operand.value(operand) - 1;
+    }
 
-                if ("symbol".equals(tac.getValue1().getName())){
-                    //check if the variable we are assigning needs to be a 'v' register.
-                    if(function_var_counter != 0 && SymbolTable.table.get(tac.getValue1().getExternalId()).getName().contains("return") && pattern.matcher(SymbolTable.table.get(tac.getValue1().getExternalId()).getName().substring(0,1)).matches()){
-                        sb.append(" ($v").append(SymbolTable.table.get(tac.getValue1().getExternalId()).getName().charAt(0)).append(")\n");
-                    }else {
-                        sb.append(" ($t").append((SymbolTable.table.get(tac.getValue1().getExternalId()).getId() - 1)).append(")\n");
-                    }
-                }else{
-                    sb.append(ConstantTable.table.get(tac.getValue1().getExternalId()).getValue()).append("\n");
-                }
+    /**
+     * Checks if a symbol is the return value of a function, which is kept in a 'v' register
+     * @param operand The symbol operand of a quadruple
+     * @return True if the symbol needs to be a 'v' register
+     */
+    private boolean isReturnRegister(int operand) {
+        if (function_var_counter == 0) {
+            return false;
+        }
+        String name = symbols.table.get(Operand.value(operand)).getName();
+        return name.contains("return") && pattern.matcher(name.substring(0,1)).matches();
+    }
 
+    /**
+     * Writes the code in the string builder and counts its instructions, every line that isn't a label is an
+     * instruction.
+     * @throws IOException If the file could not be written to.
+     */
+    private void writeInstructions() throws IOException {
+        for (int i = 0; i < sb.length(); i++) {
+            if (sb.charAt(i) == '\n' && (i == 0 || sb.charAt(i - 1) != ':')) {
+                instructions++;
             }
-            fw.write(sb.toString());
-            sb.setLength(0);
         }
+        fw.write(sb.toString());
+        sb.setLength(0);
     }
 
     /**
      * Writes comparison code for value2 based on if value2 is a symbol or a constant
-     * @param tac The TAC element to write to code
+     * @param value2 The second operand of the quadruple to write to code
      */
-    private void writeValue2ComparisonCondition(TAC tac) {
+    private void writeValue2ComparisonCondition(int value2) {
         //check if value2 is either a constant or a symbol
-        if ("symbol".equals(tac.getValue2().getName())){
-            sb.append("$t").append((SymbolTable.table.get(tac.getValue2().getExternalId()).getId() - 1)).append(" \n");
+        if (Operand.isSymbol(value2)){
+            sb.append("$t").append(register(value2)).append(" \n");
         }else{
-            sb.append(ConstantTable.table.get(tac.getValue2().getExternalId()).getValue()).append(" \n");
+            sb.append(constants.table.get(Operand.value(value2)).getValue()).append(" \n");
         }
     }
 
     /**
      * Writes comparison code for value1 based on if value1 is a symbol or a constant
-     * @param tac The TAC element to write to code
+     * @param value1 The first operand of the quadruple to write to code
      */
-    private void writeValue1ComparisonCondition(TAC tac) {
+    private void writeValue1ComparisonCondition(int value1) {
         //check if value1 is either a constant or a symbol
-        if ("symbol".equals(tac.getValue1().getName())){
-            sb.append("$t").append((SymbolTable.table.get(tac.getValue1().getExternalId()).getId() - 1)).append(" , ");
+        if (Operand.isSymbol(value1)){
+            sb.append("$t").append(register(value1)).append(" , ");
         }else{
-            sb.append(ConstantTable.table.get(tac.getValue1().getExternalId()).getValue()).append(" , ");
+            sb.append(constants.table.get(Operand.value(value1)).getValue()).append(" , ");
         }
     }
 
@@ -234,9 +282,9 @@ public class AssemblyGenerator {
     private void writeVariables() throws IOException {
         fw.write(data+"\n");
 
-        for (Integer key: SymbolTable.table.keySet()) {
+        for (Integer key: symbols.table.keySet()) {
 
-            Symbol value = SymbolTable.table.get(key);
+            Symbol value = symbols.table.get(key);
 
             if(value instanceof Variable ) {
                 //check if the first char of the name is numeric, this means it is a tac 't'
@@ -311,8 +359,8 @@ public class AssemblyGenerator {
     private void initVariables() throws IOException {
         fw.write(text + "\n");
 
-        for (Integer key : SymbolTable.table.keySet()) {
-            Symbol value = SymbolTable.table.get(key);
+        for (Integer key : symbols.table.keySet()) {
+            Symbol value = symbols.table.get(key);
 
             if (value instanceof Variable) {
                 String name;
@@ -350,8 +398,7 @@ public class AssemblyGenerator {
                         writeInitVariable(key, name);
                         break;
                 }
-                fw.write(sb.toString());
-                sb.setLength(0);
+                writeInstructions();
                 function_var_flag = false;
 
             // Ignore Function types in the symbol table as they dont matter to this part of the code
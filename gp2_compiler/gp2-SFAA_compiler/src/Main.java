@@ -1,28 +1,189 @@
+import Compiler.BatchCompiler;
+import Compiler.BatchReport;
+import Compiler.CompileMetrics;
+import Compiler.CompilerContext;
+import Compiler.CompilerDaemon;
 import Grammar.ParsingTable;
+import Grammar.TableConflict;
+import IR.Optimizer;
+import IR.Quadruples;
 import LexicalAnalyzer.LexicalAnalyzer;
+import LexicalAnalyzer.PipelinedCursor;
 import MIPS.AssemblyGenerator;
-import TAC.TAC;
 import Terminals.Exception.AnalyzerExceptions;
 import Terminals.Exception.IncorrectGrammarException;
 import Terminals.Exception.TokenDoesNotExistException;
-import Terminals.SymbolTable;
-import Terminals.Token;
 import Terminals.TokenDatabase;
+import Terminals.TokenStream;
+
+import org.json.simple.JSONObject;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 
 public class Main {
     public static void main(String[] args) throws TokenDoesNotExistException, AnalyzerExceptions, IncorrectGrammarException, IOException {
+        // -O before the mode optimizes the TAC of the compiled programs
+        boolean optimizing = args.length > 0 && args[0].equals("-O");
+        if (optimizing) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length > 0 && args[0].equals("--daemon")) {
+            // daemon mode: the optional argument is the port
+            runDaemon(args.length > 1 ? Integer.parseInt(args[1])
+                    : CompilerDaemon.DEFAULT_PORT, optimizing);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--metrics")) {
+            // metrics mode: prints the JSON report of the compilation
+            compileWithMetrics(new File(args[1]), optimizing);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--pipeline")) {
+            // pipelined mode: the lexer and the parser run in two threads
+            compilePipelined(new File(args[1]), optimizing);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--quadruples")) {
+            // prints the quadruples before and after the optimization
+            printQuadruples(new File(args[1]));
+            return;
+        }
+        if (args.length > 0) {
+            // batch mode: every argument is a .sfaa file or a directory
+            compileBatch(args, optimizing);
+            return;
+        }
         TokenDatabase td = new TokenDatabase();
-        LexicalAnalyzer la = new LexicalAnalyzer();
+        CompilerContext context = new CompilerContext();
+        context.setOptimizing(optimizing);
+        LexicalAnalyzer la = new LexicalAnalyzer(context);
         File file = new File("Resources/fibFunc.sfaa");
-        ArrayList<Token> t = la.getTokens(file);
         ParsingTable pt = new ParsingTable();
-        ArrayList<TAC> grammar = pt.checkGrammar(t);
-        AssemblyGenerator ag = new AssemblyGenerator();
+        for (TableConflict conflict : pt.getConflicts()) {
+            System.err.println(conflict);
+        }
+        Quadruples grammar = pt.checkGrammar(la.stream(file), context);
+        grammar = Optimizer.optimize(grammar, context);
+        AssemblyGenerator ag = new AssemblyGenerator(context);
         ag.convertTacToMIPS(grammar);
-        SymbolTable.printSymbolTable();
+        context.getSymbolTable().printSymbolTable();
+    }
+
+    /**
+     * compiles many files at the same time, writing one .asm next to each
+     * input, and prints the errors and the throughput of the compilation.
+     * The process exits with 1 if any file failed.
+     * @param args the files and directories to be compiled.
+     * @param optimizing true if the TAC of the files is optimized.
+     */
+    private static void compileBatch(String[] args, boolean optimizing) throws TokenDoesNotExistException, IOException {
+        new TokenDatabase();
+        ParsingTable pt = new ParsingTable();
+        for (TableConflict conflict : pt.getConflicts()) {
+            System.err.println(conflict);
+        }
+        BatchCompiler compiler = new BatchCompiler(pt);
+        compiler.setOptimizing(optimizing);
+        BatchReport report = compiler.compile(
+                BatchCompiler.findInputs(Arrays.asList(args)));
+        compiler.shutdown();
+        report.print(System.out);
+        if (!report.getFailures().isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * compiles one file running each phase on its own, so all of them can be
+     * measured, and prints the JSON report of the compilation. The assembly
+     * is written next to the input.
+     * @param file the file to be compiled.
+     * @param optimizing true if the TAC is optimized.
+     */
+    private static void compileWithMetrics(File file, boolean optimizing) throws TokenDoesNotExistException, AnalyzerExceptions, IncorrectGrammarException, IOException {
+        new TokenDatabase();
+        CompilerContext context = new CompilerContext();
+        context.setTrace(null);
+        context.setOptimizing(optimizing);
+        CompileMetrics metrics = context.getMetrics();
+        ParsingTable pt;
+        metrics.begin(CompileMetrics.Phase.TABLE_CONSTRUCTION);
+        try {
+            pt = new ParsingTable();
+        } finally {
+            metrics.end(CompileMetrics.Phase.TABLE_CONSTRUCTION);
+        }
+        TokenStream tokens = new LexicalAnalyzer(context).getTokens(file);
+        Quadruples grammar = pt.checkGrammar(tokens, context);
+        grammar = Optimizer.optimize(grammar, context);
+        new AssemblyGenerator(context, BatchCompiler.outputOf(file))
+                .convertTacToMIPS(grammar);
+        Map<String, Object> report = metrics.toJSON();
+        report.put("file", file.getPath());
+        System.out.println(JSONObject.toJSONString(report));
+    }
+
+    /**
+     * compiles one file while it is being tokenized, the tokens are passed
+     * from the lexer thread to the parser through a bounded buffer. The
+     * assembly is written next to the input.
+     * @param file the file to be compiled.
+     * @param optimizing true if the TAC is optimized.
+     */
+    private static void compilePipelined(File file, boolean optimizing) throws TokenDoesNotExistException, AnalyzerExceptions, IncorrectGrammarException, IOException {
+        new TokenDatabase();
+        ParsingTable pt = new ParsingTable();
+        CompilerContext context = new CompilerContext();
+        context.setTrace(null);
+        context.setOptimizing(optimizing);
+        Quadruples grammar;
+        try (PipelinedCursor tokens = new LexicalAnalyzer(context).pipeline(file)) {
+            grammar = pt.checkGrammar(tokens, context);
+        }
+        grammar = Optimizer.optimize(grammar, context);
+        new AssemblyGenerator(context, BatchCompiler.outputOf(file))
+                .convertTacToMIPS(grammar);
+    }
+
+    /**
+     * compiles one file and prints its quadruples before and after the
+     * optimization, no assembly is written. The samples in
+     * Resources/optimizer have the output expected for each of them.
+     * @param file the file to be compiled.
+     */
+    private static void printQuadruples(File file) throws TokenDoesNotExistException, AnalyzerExceptions, IncorrectGrammarException, IOException {
+        new TokenDatabase();
+        ParsingTable pt = new ParsingTable();
+        CompilerContext context = new CompilerContext();
+        context.setTrace(null);
+        context.setOptimizing(true);
+        Quadruples grammar = pt.checkGrammar(new LexicalAnalyzer(context).getTokens(file), context);
+        System.out.println("before:");
+        System.out.print(grammar.toString(context));
+        grammar = Optimizer.optimize(grammar, context);
+        System.out.println("after:");
+        System.out.print(grammar.toString(context));
+    }
+
+    /**
+     * keeps a compiler in memory that compiles the programs sent to a port
+     * of the loopback interface, until the process is stopped.
+     * @param port the port to listen on.
+     * @param optimizing true if the TAC of the requests is optimized.
+     */
+    private static void runDaemon(int port, boolean optimizing) throws TokenDoesNotExistException, IOException {
+        new TokenDatabase();
+        ParsingTable pt = new ParsingTable();
+        for (TableConflict conflict : pt.getConflicts()) {
+            System.err.println(conflict);
+        }
+        try (CompilerDaemon daemon = new CompilerDaemon(pt, port)) {
+            daemon.setOptimizing(optimizing);
+            System.out.println("listening on port " + daemon.getPort());
+            daemon.serve();
+        }
     }
 }
@@ -0,0 +1,159 @@
+package TAC;
+
+import Compiler.CompilerContext;
+import Grammar.SyntaxTree;
+import Grammar.SyntaxTreeVisitor;
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.TokenDoesNotExistException;
+import Terminals.Token;
+
+import java.util.ArrayList;
+
+/**
+ * this class generates the TACs of a math or boolean expression, respecting
+ * the hierarchy of the expression. The expression is walked in post-order,
+ * the TACs of the operands are kept in a stack until the operator that uses
+ * them is exited, so long expressions don't need one call per level.
+ *
+ * a TAC is given to the generator as soon as its result is known, the TACs
+ * kept in the stack are only the ones still being filled in.
+ */
+class ExpressionTACVisitor implements SyntaxTreeVisitor {
+
+    //---------------- attributes -----------------//
+
+    private final CompilerContext context;
+    private final TACGenerator generator;
+    //the operator of each open node and the TACs of its visited children
+    private final ArrayList<Token> operators = new ArrayList<>();
+    private final ArrayList<ArrayList<TAC>> generated = new ArrayList<>();
+    private ArrayList<TAC> result;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor of the visitor.
+     * @param context the compilation where the temporary variables of the
+     *                expression are added.
+     * @param generator the generator that receives the TACs of the
+     *                  expression.
+     */
+    ExpressionTACVisitor(CompilerContext context, TACGenerator generator) {
+        this.context = context;
+        this.generator = generator;
+    }
+
+    /**
+     * this method generates the TACs of an expression.
+     * @param expression the starting node of the expression.
+     * @return the symbol or constant with the value of the expression.
+     * @throws TokenDoesNotExistException if an invalid token is used while
+     * generating the TAC.
+     * @throws AnalyzerExceptions if a semantic error is detected while
+     * analyzing the grammar tree.
+     */
+    public Token generate(SyntaxTree expression)
+            throws TokenDoesNotExistException, AnalyzerExceptions {
+        result = null;
+        expression.walk(this);
+        TAC last = result.get(result.size() - 1);
+        return last.isFull() ? last.getResult() : last.getValue2();
+    }
+
+    @Override
+    public boolean enter(SyntaxTree node) throws TokenDoesNotExistException {
+        operators.add(node.getCurrentValue().getTerminal());
+        generated.add(node.getNumberOfChildren() == 0 ? null
+                : new ArrayList<>());
+        return true;
+    }
+
+    @Override
+    public void exit(SyntaxTree node)
+            throws TokenDoesNotExistException, AnalyzerExceptions {
+        int top = operators.size() - 1;
+        Token value = operators.remove(top);
+        ArrayList<TAC> aux = generated.remove(top);
+        if (aux == null) {
+            TAC t = new TAC();
+            add(t, value);
+            aux = new ArrayList<>();
+            aux.add(t);
+        }
+        if (top == 0) {
+            result = aux;
+        } else {
+            combine(operators.get(top - 1), generated.get(top - 1), aux);
+        }
+    }
+
+    /**
+     * this method adds the TACs of a child to the TACs of its operator.
+     * @param operator the operator of the parent node.
+     * @param auxTac the TACs of the children of the operator visited so far.
+     * @param aux the TACs of the child that was just visited.
+     * @throws TokenDoesNotExistException if an invalid token is used while
+     * generating the TAC.
+     * @throws AnalyzerExceptions if two TACs that aren't full have to be
+     * combined.
+     */
+    private void combine(Token operator, ArrayList<TAC> auxTac,
+                         ArrayList<TAC> aux)
+            throws TokenDoesNotExistException, AnalyzerExceptions {
+        //if each field of the TAC has been filled in
+        // combine yourself with  just generated children
+        if (aux.get(aux.size()-1).isFull()){
+            TAC t = new TAC();
+            add(t, operator);
+            if(auxTac.isEmpty()){
+                add(t, aux.get(aux.size()-1).getResult());
+            }else{
+                //check if the aux tac is full
+                if(auxTac.get(aux.size()-1).isFull()){
+                    add(t, auxTac.get(aux.size()-1).getResult());
+                }else{
+                    throw new AnalyzerExceptions("two not full TACs " +
+                            "in hand.");
+                }
+            }
+            aux.add(t);
+        }else{
+            if(auxTac.isEmpty())
+                add(aux.get(aux.size()-1), operator);
+            else{
+                if(auxTac.get(auxTac.size() -1).isFull())
+                    add(aux.get(aux.size()-1), auxTac.get(auxTac.size()-1).getResult());
+                else{
+                    add(aux.get(aux.size()-1), auxTac.get(auxTac.size()-1).getValue2());
+
+                    TAC t = new TAC();
+                    add(t, auxTac.get(auxTac.size()-1).getOperation());
+                    add(t, aux.get(aux.size()-1).getResult());
+
+                    auxTac.remove(auxTac.size()-1);
+
+                    aux.add(t);
+                }
+            }
+        }
+
+        auxTac.addAll(aux);
+    }
+
+    /**
+     * this method adds a token to a TAC, the TAC is given to the generator
+     * when it becomes full.
+     * @param t the TAC being filled in.
+     * @param value the operator or value added.
+     * @throws TokenDoesNotExistException if an invalid token is used while
+     * generating the TAC.
+     * @throws AnalyzerExceptions if the TAC is already full or its values
+     * have different types.
+     */
+    private void add(TAC t, Token value)
+            throws TokenDoesNotExistException, AnalyzerExceptions {
+        if (t.add(value, context) != -1) {
+            generator.EmitTemporary(t);
+        }
+    }
+}
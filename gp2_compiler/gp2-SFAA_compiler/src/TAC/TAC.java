@@ -1,5 +1,6 @@
 package TAC;
 
+import Compiler.CompilerContext;
 import Terminals.ConstantTable;
 import Terminals.Exception.AnalyzerExceptions;
 import Terminals.Exception.TokenDoesNotExistException;
@@ -25,8 +26,6 @@ public class TAC {
     private Token value2;
     private Token operation;
 
-    private static Integer globalTCounter = 0;
-
     //---------------- methods -----------------//
 
     /**
@@ -108,9 +107,10 @@ public class TAC {
     /**
      * this function creates a string with the information of one token
      * @param value the token to be processed
+     * @param context the compilation where the token's data is stored.
      * @return a string containing the token's data.
      */
-    public String valueToString(Token value){
+    public static String valueToString(Token value, CompilerContext context){
         StringBuilder string = new StringBuilder();
 
         if(value != null)
@@ -119,14 +119,14 @@ public class TAC {
                     string.append(value.getName()
                             +value.getExternalId() + " "
                             + "( "
-                            + ConstantTable.table.get(value.getExternalId()).getValue()
+                            + context.getConstantTable().table.get(value.getExternalId()).getValue()
                             +" ) ");
                     break;
                 case Token.SYMBOLS:
                     string.append(value.getName()
                             +value.getExternalId() + " "
                             + "( "
-                            + SymbolTable.table.get(value.getExternalId()).getName()
+                            + context.getSymbolTable().table.get(value.getExternalId()).getName()
                             +" ) ");
                     break;
                 default:
@@ -168,6 +168,7 @@ public class TAC {
      * the TAC half full, then a result token is created and added to the
      * result field.
      * @param t the token to be added
+     * @param context the compilation where the auxiliary variable is added.
      * @return the number of the auxiliary variable placed in the results if
      * any. Otherwise it will return -1-
      * @throws AnalyzerExceptions if provided a token to TAC that is already
@@ -175,7 +176,7 @@ public class TAC {
      * @throws TokenDoesNotExistException if an invalid token was used while
      * creating the result.
      */
-    public int add(Token t) throws AnalyzerExceptions, TokenDoesNotExistException {
+    public int add(Token t, CompilerContext context) throws AnalyzerExceptions, TokenDoesNotExistException {
         if (this.operation == null
                 && t.getId() >= 46
                 && t.getId() <= 76)
@@ -193,27 +194,32 @@ public class TAC {
                     "Error code: 4");
         }
         if (isHalfFull()){
+            ConstantTable constants = context.getConstantTable();
+            SymbolTable symbols = context.getSymbolTable();
             value1 = t;
             String type2 = "";
             String type1 = "";
             if (value1.getId() == Token.CONSTANTS){
                 type1 =
-                        ConstantTable.table.get(value1.getExternalId()).getType();
+                        constants.table.get(value1.getExternalId()).getType();
             }else if(value1.getId() == Token.SYMBOLS){
                 type1 =
-                        SymbolTable.table.get(value1.getExternalId()).getType();
+                        symbols.table.get(value1.getExternalId()).getType();
             }
 
             if (value2.getId() == Token.CONSTANTS){
                 type2 =
-                        ConstantTable.table.get(value2.getExternalId()).getType();
+                        constants.table.get(value2.getExternalId()).getType();
             }else if(value2.getId() == Token.SYMBOLS){
                 type2 =
-                        SymbolTable.table.get(value2.getExternalId()).getType();
+                        symbols.table.get(value2.getExternalId()).getType();
             }
 
+            int temporary;
             if (type1.compareTo(type2) == 0){
-                Variable auxVar = new Variable(TAC.globalTCounter.toString(),type1);
+                temporary = context.nextTemporary();
+                Variable auxVar = new Variable(symbols,
+                        Integer.toString(temporary), type1);
                 result = new Token(Token.SYMBOLS , auxVar.getId());
             }
             else
@@ -222,7 +228,7 @@ public class TAC {
                         + System.lineSeparator()
                         + type1 + " " + operation.getName() + " " + type2);
 
-            return TAC.globalTCounter++;
+            return temporary;
         }
         return -1;
     }
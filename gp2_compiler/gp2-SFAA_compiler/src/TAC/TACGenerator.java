@@ -1,166 +1,159 @@
 package TAC;
 
+import Compiler.CompilerContext;
 import Grammar.GrammarNode;
-import TAC.TAC;
+import Grammar.SyntaxTree;
+import IR.Opcode;
+import IR.Operand;
+import IR.QuadrupleBuilder;
+import IR.Quadruples;
 import Terminals.*;
 import Terminals.Exception.AnalyzerExceptions;
 import Terminals.Exception.TokenDoesNotExistException;
-import Tree.Tree;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 
 /**
- * this class is responsible for generating the TAC from a grammar tree.
+ * this class is responsible for generating the TAC from a grammar tree. The
+ * TACs are encoded as quadruples as soon as they are generated, they are
+ * only written as text in the trace of the compilation.
  */
 public class TACGenerator {
 
     //---------------- attributes -----------------//
 
-    private Tree<GrammarNode> parsingTree ;
-    private ArrayList<TAC> tac;
+    private SyntaxTree parsingTree ;
+    private CompilerContext context;
+    private SymbolTable symbols;
+    private QuadrupleBuilder builder;
+    //the symbols created for the temporaries of the expressions
+    private BitSet temporaries;
+    private Quadruples quadruples;
     private Constant mainBlock;
-    private static int blockIDGlobalIterator = 0;
     private Function currentFunction;
-    private Variable returnVar = new Variable("0return", "int");
+    private Variable returnVar;
 
 
     //---------------- methods -----------------//
 
     /**
      * this is the default constructor of this class. This constructor
-     * processes a grammar tree and creates an abstract tree out of it.
-     * @param parsingTree the grammar tree to be used to generate the TAC.
+     * generates the TAC of an abstract syntax tree, the tree is built by
+     * the parser (see {@link Grammar.SyntaxTreeBuilder}).
+     * @param parsingTree the abstract syntax tree to be used to generate the
+     *                    TAC.
+     * @param context the compilation where the symbols, constants and blocks
+     *                of the TAC are added.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    public TACGenerator(Tree<GrammarNode> parsingTree) throws TokenDoesNotExistException, AnalyzerExceptions {
-        this.tac = new ArrayList<>();
-        mainBlock = new Constant((blockIDGlobalIterator++)+"",false);
+    public TACGenerator(SyntaxTree parsingTree, CompilerContext context) throws TokenDoesNotExistException, AnalyzerExceptions {
+        this.context = context;
+        this.symbols = context.getSymbolTable();
+        this.returnVar = new Variable(symbols, "0return", "int");
+        this.builder = new QuadrupleBuilder();
+        this.temporaries = new BitSet();
+        mainBlock = newBlock();
         this.parsingTree = parsingTree;
         this.parsingTree.moveToRoot();
-        TreePreprocessing();
-        this.parsingTree.moveToRoot();
-        GenerateAbstractSyntaxTree(0);
-        this.parsingTree.moveToRoot();
-        TreePostprocessing();
-        this.parsingTree.moveToRoot();
-
 
         GenerateTAC();
-        PrintTAC(tac);
+        quadruples = builder.build();
+        builder = null;
     }
 
     /**
-     * this method pre-processes the grammar tree by deleting the statements,
-     * statement, or aux_statements non-terminals.
+     * this method adds a TAC at the end of the quadruples, and prints it in
+     * the trace of the compilation.
+     * @param result the token that receives the value, or the block of the
+     *               jumps, labels and calls. It can be null.
+     * @param value1 the first value, it can be null.
+     * @param value2 the second value, it can be null.
+     * @param operation the operation, null for a copy.
+     * @throws AnalyzerExceptions if the operation or the values can't be
+     * used in a TAC.
      */
-    private void TreePreprocessing() {
-        for (int i = 0; i < parsingTree.getNumberOfChildren(); i++) {
-            if(!parsingTree.getChild(i).isTerminal()){
-                parsingTree.moveToChild(i);
-                if(parsingTree.getCurrentValue().getNonTerminalID().equals(
-                        "statements")){
-                    parsingTree.replaceCurrentWithChildren();
-                }else if((parsingTree.getCurrentValue().getNonTerminalID().equals(
-                        "statement"))){
-                    parsingTree.replaceCurrentWithChildren();
-                }else if((parsingTree.getCurrentValue().getNonTerminalID().equals(
-                        "aux_statements"))) {
-                    parsingTree.replaceCurrentWithChildren();
-                }
-                TreePreprocessing();
-                parsingTree.moveToParent();
+    void Emit(Token result, Token value1, Token value2, Token operation)
+            throws AnalyzerExceptions {
+        Opcode opcode = Opcode.COPY;
+        if (operation != null) {
+            opcode = Opcode.fromToken(operation.getId());
+            if (opcode == null) {
+                throw new AnalyzerExceptions("Unknown operation " + operation.getName());
             }
         }
+        builder.add(opcode, EncodeOperand(result, opcode.hasLabel()),
+                EncodeOperand(value1, false), EncodeOperand(value2, false));
+        PrintTAC(result, value1, value2, operation);
     }
 
     /**
-     * this method does the post processing by deleting all the parentheses
-     * from the math expressions and ensuring that the hierarchy is still
-     * represented.
-     * @throws TokenDoesNotExistException if an illegal token is used in the
-     * process.
+     * this method adds a TAC of an expression whose result is a new
+     * temporary.
+     * @param t the full TAC.
+     * @throws AnalyzerExceptions if the operation or the values can't be
+     * used in a TAC.
      */
-    private void TreePostprocessing() throws TokenDoesNotExistException {
-        for (int i = 0; i < parsingTree.getNumberOfChildren(); i++) {
-
-            parsingTree.moveToChild(i);
-            if(parsingTree.getCurrentValue().getTerminal().getId() == Token.OPENING_PAR
-                    && parsingTree.getNumberOfChildren() != 0){
-                parsingTree.deleteChild(new GrammarNode(new Token(")")));
-                i = parsingTree.ReplaceCurrentWithChild(0);
-            }
-            TreePostprocessing();
-            parsingTree.moveToParent();
-
-        }
+    void EmitTemporary(TAC t) throws AnalyzerExceptions {
+        temporaries.set(t.getResult().getExternalId());
+        Emit(t.getResult(), t.getValue1(), t.getValue2(), t.getOperation());
     }
 
     /**
-     * this method recursively generates the abstract syntax tree form the
-     * provided grammar tree. this is done by removing all the non-terminals
-     * and only leaving the terminals in the tree.
-     * @param pos the position of the current node.
+     * this method encodes an operand of a TAC.
+     * @param value the symbol or constant token, it can be null.
+     * @param label true if the constant is the number of a block.
+     * @return the encoded operand (see {@link Operand}).
+     * @throws AnalyzerExceptions if the token isn't a symbol nor a constant.
      */
-    private void GenerateAbstractSyntaxTree(int pos){
-
-        for(int i = 0; i < parsingTree.getNumberOfChildren(); i++) {
-            if(parsingTree.getCurrentValue().isTerminal()){
-                // if the current node is a terminal
-                parsingTree.moveToChild(i);
-
-                if(!parsingTree.getCurrentValue().isTerminal()
-                        && parsingTree.getNumberOfChildren() == 0){
-                    parsingTree.deleteCurrent();
-                }else {
-                    GenerateAbstractSyntaxTree(i);
-                    parsingTree.moveToParent();
-                }
-
-            }else{
-                if(parsingTree.getChild(i).isTerminal()){
-                    // if the current node is not a terminal
-                    // but the child we are looking at is a terminal
-                    i = parsingTree.ReplaceCurrentWithChild(i);
-                }else{
-                    // if the current node is not a terminal
-                    // and the child we are looking at is not a terminal as
-                    // well
-                    parsingTree.moveToChild(i);
-                    if(!parsingTree.getCurrentValue().isTerminal()
-                            && parsingTree.getNumberOfChildren() == 0){
-                        parsingTree.deleteCurrent();
-                    }else {
-                        GenerateAbstractSyntaxTree(i);
-                        parsingTree.moveToParent();
-                        if(parsingTree.getChild(i).isTerminal()){
-                            i = parsingTree.ReplaceCurrentWithChild(i);
-                        }
-                    }
-                }
-            }
+    private int EncodeOperand(Token value, boolean label) throws AnalyzerExceptions {
+        if (value == null) {
+            return Operand.NONE;
+        }
+        int id = value.getExternalId();
+        if (id == -1) {
+            throw new AnalyzerExceptions("Error compiling your code" +
+                    ".ErrorCode = 1");
         }
+        if (value.getId() == Token.CONSTANTS) {
+            return label ? Operand.label((int) context.getConstantTable().table.get(id).getValue())
+                    : Operand.constant(id);
+        }
+        return temporaries.get(id) ? Operand.temp(id) : Operand.variable(id);
     }
 
-
     /**
-     * this method prints the TAC list in a readable format
-     * @param tac the list of TACs
+     * this method prints a TAC in a readable format
+     * @param result the token that receives the value.
+     * @param value1 the first value.
+     * @param value2 the second value.
+     * @param operation the operation.
      */
-    private void PrintTAC(ArrayList<TAC> tac){
-        for (TAC t :
-                tac) {
-            System.out.print(t.valueToString(t.getResult()) + ": ");
-            System.out.print(t.valueToString(t.getValue1()) );
-            System.out.print(t.valueToString(t.getOperation()));
-            System.out.print(t.valueToString(t.getValue2()) );
-
-            System.out.println("");
-
+    private void PrintTAC(Token result, Token value1, Token value2,
+                          Token operation){
+        if (context.getTrace() == null) {
+            return;
         }
+        context.getTrace().print(TAC.valueToString(result, context) + ": ");
+        context.getTrace().print(TAC.valueToString(value1, context) );
+        context.getTrace().print(TAC.valueToString(operation, context));
+        context.getTrace().print(TAC.valueToString(value2, context) );
 
+        context.getTrace().println("");
+    }
+
+    /**
+     * this method creates the constant with the id of a new block.
+     * @return the constant of the block.
+     * @throws AnalyzerExceptions if the constant couldn't be created.
+     */
+    private Constant newBlock() throws AnalyzerExceptions {
+        return new Constant(context.getConstantTable(),
+                context.nextBlockId() + "", false);
     }
 
     /**
@@ -173,50 +166,46 @@ public class TACGenerator {
     private void GenerateTAC() throws TokenDoesNotExistException, AnalyzerExceptions {
         // check for Main and Func
         Token current = parsingTree.getCurrentValue().getTerminal();
-        if(current.compareTo(new Token(Token.START)) == 0){
-            this.tac.addAll(GenerateMainTAC(parsingTree.getCurrentBranch()));
-        }else if(current.compareTo(new Token(Token.FUNC)) == 0) {
+        if(current.compareTo(Token.of(Token.START)) == 0){
+            GenerateMainTAC(parsingTree.getCurrentBranch());
+        }else if(current.compareTo(Token.of(Token.FUNC)) == 0) {
             // Not implemented YET
-            this.tac.addAll(GenerateFuncTAC(parsingTree.getCurrentBranch()));
+            GenerateFuncTAC(parsingTree.getCurrentBranch());
         }
     }
 
     /**
      * this method genrates the TACs of the main.
      * @param mainBranch the starting node of the main.
-     * @return a list of the main TACs
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateMainTAC(Tree<GrammarNode> mainBranch) throws TokenDoesNotExistException, AnalyzerExceptions {
+    private void GenerateMainTAC(SyntaxTree mainBranch) throws TokenDoesNotExistException, AnalyzerExceptions {
         // check statments
 
-        return new ArrayList<>(SwitchTAC(mainBranch, 0, Token.END));
+        SwitchTAC(mainBranch, 0, Token.END);
     }
 
     /**
      * this method generates the TACs for the functions, if there are any,
      * and then it will generate the main TACs.
      * @param funcBranch the starting node of the function.
-     * @return a list of the generated TACs for the functions.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateFuncTAC(Tree<GrammarNode> funcBranch) throws TokenDoesNotExistException, AnalyzerExceptions {
+    private void GenerateFuncTAC(SyntaxTree funcBranch) throws TokenDoesNotExistException, AnalyzerExceptions {
         // check statements
-        ArrayList<TAC> auxTAC = new ArrayList<TAC>();
-        TAC aux = new TAC(new Token(Token.CONSTANTS, this.mainBlock.getId()), null, null, new Token(Token.GOTO));
-        auxTAC.add(aux);
+        Emit(new Token(Token.CONSTANTS, this.mainBlock.getId()), null, null, Token.of(Token.GOTO));
         currentFunction =
-                (Function)SymbolTable.table.get(funcBranch.getChild(2).getTerminal().getExternalId());
-        currentFunction.setBlockId(blockIDGlobalIterator++);
-        Constant thisBlock = new Constant(currentFunction.getBlockId()+"",false);
-        aux = new TAC(new Token(Token.CONSTANTS, thisBlock.getId()), null, null, new Token(Token.BLOCK_START));
-        auxTAC.add(aux);//startingBlock
+                (Function)symbols.table.get(funcBranch.getChild(2).getTerminal().getExternalId());
+        currentFunction.setBlockId(context.nextBlockId());
+        Constant thisBlock = new Constant(context.getConstantTable(),
+                currentFunction.getBlockId()+"",false);
+        Emit(new Token(Token.CONSTANTS, thisBlock.getId()), null, null, Token.of(Token.BLOCK_START));//startingBlock
 
         funcBranch.moveToChild(3);
         int i = 0;
@@ -225,75 +214,69 @@ public class TACGenerator {
                 break;
             }
         }
-        auxTAC.addAll(SwitchTAC(funcBranch, i, "}"));
+        SwitchTAC(funcBranch, i, "}");
         funcBranch.moveToParent();
         //main block
-        aux = new TAC(new Token(Token.CONSTANTS, this.mainBlock.getId()), null, null, new Token(Token.BLOCK_START));
-        auxTAC.add(aux);
-        auxTAC.addAll(SwitchTAC(funcBranch, 5, Token.END));
-
-        return auxTAC;
+        Emit(new Token(Token.CONSTANTS, this.mainBlock.getId()), null, null, Token.of(Token.BLOCK_START));
+        //the main is the start node after the function
+        funcBranch.moveToChild(4);
+        SwitchTAC(funcBranch, 0, Token.END);
+        funcBranch.moveToParent();
     }
 
     /**
      * this method generates the TAC to a function call
      * @param callBranch the call starting node.
-     * @return the list of TACs to full fill this call
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree. This is also thrown if the return type and
      * the variable used to store it don't match.
      */
-    private ArrayList<TAC> GenerateCallTAC(Tree<GrammarNode> callBranch)
+    private void GenerateCallTAC(SyntaxTree callBranch)
             throws AnalyzerExceptions, TokenDoesNotExistException
     {
-        ArrayList<TAC> tacs = new ArrayList<TAC>();
-
         Function callFunc =
-                (Function)SymbolTable.table.get(callBranch.getChild(0).getTerminal().getExternalId());
+                (Function)symbols.table.get(callBranch.getChild(0).getTerminal().getExternalId());
 
         int i = 0;
-        TAC aux;
 
 
         if(callBranch.getChild(2).getTerminal().getId() != Token.CLOSING_CURLY) {
-            aux = new TAC(new Token(Token.SYMBOLS,
+            Emit(new Token(Token.SYMBOLS,
                     callFunc.getParameters().get(i).getId()),
-                    callBranch.getChild(2).getTerminal());
-            tacs.add(aux);
+                    callBranch.getChild(2).getTerminal(), null, null);
             callBranch.moveToChild(2);
             i++;
             while (callBranch.getNumberOfChildren() != 0 && i < callFunc.getNumParameters()) {
                 if (callBranch.getChild(0).getTerminal().getId() == Token.SYMBOLS) {
-                    aux = new TAC(new Token(Token.SYMBOLS,
+                    Emit(new Token(Token.SYMBOLS,
                             callFunc.getParameters().get(i).getId()),
-                            callBranch.getChild(0).getTerminal());
-                    tacs.add(aux);
+                            callBranch.getChild(0).getTerminal(), null, null);
                     i++;
                 }
                 callBranch.moveToChild(0);
             }
         }
 
-        Constant blockId = new Constant(callFunc.getBlockId() + "", false);
-        aux = new TAC(new Token(Token.CONSTANTS, blockId.getId()),
+        Constant blockId = new Constant(context.getConstantTable(),
+                callFunc.getBlockId() + "", false);
+        Emit(new Token(Token.CONSTANTS, blockId.getId()),
                 null,
                 null,
-                new Token(Token.CALL));
-        tacs.add(aux);
+                Token.of(Token.CALL));
         callBranch.moveToRoot();
         if(callBranch.getChild(4).getTerminal().getId() != Token.SEMICOLON){
             callBranch.moveToChild(4);
-            if(SymbolTable.table
+            if(symbols.table
                     .get(callBranch.getChild(0)
                             .getTerminal().getExternalId()).getType()
                     .equals(returnVar.getType())){
-                aux = new TAC(
+                Emit(
                         callBranch.getChild(0).getTerminal(),
-                        new Token(Token.SYMBOLS, returnVar.getId())
+                        new Token(Token.SYMBOLS, returnVar.getId()),
+                        null, null
                 );
-                tacs.add(aux);
             }else throw new
                     AnalyzerExceptions(
                             "You can not store a return value of type "
@@ -303,47 +286,37 @@ public class TACGenerator {
                             + System.lineSeparator());
 
         }
-        return tacs;
     }
 
     /**
-     * this methods generates the TAC for a meanwhile header.
+     * this methods generates the TAC for a meanwhile header, and opens the
+     * block with the inside of the loop. The TACs after the loop are
+     * generated when that block ends.
      * @param meanwhileBranch the starting node of the meanwhile
-     * @return a list of TACs that represent the meanwhile header. the
-     * condition and the inside of the loop.
+     * @param statements the stack of blocks of statements being generated.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateMeanwhileTAC(Tree<GrammarNode> meanwhileBranch)
+    private void GenerateMeanwhileTAC(SyntaxTree meanwhileBranch,
+                                      ArrayDeque<StatementBlock> statements)
             throws AnalyzerExceptions, TokenDoesNotExistException
     {
-        ArrayList<TAC> tacs = new ArrayList<>();
-
-        Constant thisBlock = new Constant((blockIDGlobalIterator++)+"",false);
-        TAC aux = new TAC(new Token(Token.CONSTANTS, thisBlock.getId()), null, null, new Token(Token.BLOCK_START));
-        tacs.add(aux);
+        Constant thisBlock = newBlock();
+        Emit(new Token(Token.CONSTANTS, thisBlock.getId()), null, null, Token.of(Token.BLOCK_START));
 
         //first child is a parenthesis, so we instead return its first real
-        ArrayList<TAC> boolTacs = GenerateBoolTAC(meanwhileBranch.getChildBranch(1));
-        tacs.addAll(boolTacs);
-
-        Constant nextBlock = new Constant((blockIDGlobalIterator++)+"",false);
-        aux = new TAC(new Token(Token.CONSTANTS, nextBlock.getId()), boolTacs.get((boolTacs.size())-1).getResult(), null, new Token(Token.IF));
-        tacs.add(aux);
+        Token condition = GenerateBoolTAC(meanwhileBranch.getChildBranch(1));
 
-        tacs.addAll(SwitchTAC(meanwhileBranch, 3, "done"));
+        Constant nextBlock = newBlock();
+        Emit(new Token(Token.CONSTANTS, nextBlock.getId()), condition, null, Token.of(Token.IF));
 
-
-        aux = new TAC(new Token(Token.CONSTANTS, thisBlock.getId()), null, null, new Token(Token.GOTO));
-        tacs.add(aux);
-
-        aux = new TAC(new Token(Token.CONSTANTS, nextBlock.getId()), null, null, new Token(Token.BLOCK_START));
-        tacs.add(aux);
-
-
-        return tacs;
+        statements.push(new StatementBlock(meanwhileBranch, 3, "done",
+                loopStatements -> {
+                    Emit(new Token(Token.CONSTANTS, thisBlock.getId()), null, null, Token.of(Token.GOTO));
+                    Emit(new Token(Token.CONSTANTS, nextBlock.getId()), null, null, Token.of(Token.BLOCK_START));
+                }));
     }
 
     /**
@@ -351,196 +324,162 @@ public class TACGenerator {
      * the if main node.
      * @param ifBranch the starting node of this if.
      * @return a list of all the tags proceeding the if
+     * @throws TokenDoesNotExistException if an invalid token is found in the
+     * tree.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<String> findIfSuccessors(Tree<GrammarNode> ifBranch) throws AnalyzerExceptions {
-        GrammarNode lastNode =
-                ifBranch.getChild(ifBranch.getNumberOfChildren()-1);
+    private ArrayList<String> findIfSuccessors(SyntaxTree ifBranch)
+            throws AnalyzerExceptions, TokenDoesNotExistException {
         ArrayList<String> ifSuccessors = new ArrayList<>();
-        if(lastNode.isTerminal()){
+        //each elseif/else is the last child of the previous one
+        int depth = 0;
+        while (true) {
+            GrammarNode lastNode =
+                    ifBranch.getChild(ifBranch.getNumberOfChildren()-1);
+            if (!lastNode.isTerminal()) {
+                break;
+            }
             String terminal = lastNode.getTerminal().getName();
 
             if(terminal.equals("fi")){
                 ifSuccessors.add("fi");
-                return ifSuccessors;
-            }
-            else if(terminal.equals("elseif")){
-                ifBranch.moveToChild(ifBranch.getNumberOfChildren() - 1);
-                ifSuccessors.add("elseif");
-                ifSuccessors.addAll(findIfSuccessors(ifBranch));
-                ifBranch.moveToParent();
+                break;
             }
-            else if(terminal.equals("else")){
+            else if(terminal.equals("elseif") || terminal.equals("else")){
                 ifBranch.moveToChild(ifBranch.getNumberOfChildren() - 1);
-                ifSuccessors.add("else");
-                ifSuccessors.addAll(findIfSuccessors(ifBranch));
-                ifBranch.moveToParent();
+                ifSuccessors.add(terminal);
+                depth++;
             }else{
                 throw new AnalyzerExceptions("if has weird children");
             }
         }
+        for (; depth > 0; depth--) {
+            ifBranch.moveToParent();
+        }
         return ifSuccessors;
     }
 
     /**
-     * this method generates all the TACs and blocks needed for an if
-     * statement and all of its proceeding elseif and else statements.
-     * @param ifBranch the starting node of the if statement.
-     * @return a list of TACs that represent the if statements.
-     * @throws TokenDoesNotExistException if an invalid token is used while
-     * generating the TAC.
-     * @throws AnalyzerExceptions if a semantic error is detected while
-     * analyzing the grammar tree.
+     * this class generates all the TACs and blocks needed for an if
+     * statement and all of its proceeding elseif and else statements. Each
+     * one of them opens a block of statements, when that block ends the
+     * next one is started.
      */
-    private ArrayList<TAC> GenerateIfTAC(Tree<GrammarNode> ifBranch)
-            throws AnalyzerExceptions, TokenDoesNotExistException
-    {
-        ArrayList<TAC> auxTac = new ArrayList<>();
-        ArrayList<String> ifSuccessors = findIfSuccessors(ifBranch);
-        ArrayList<Constant> blocks = new ArrayList<>();
-
-        for (int i = 0; i < ifSuccessors.size(); i++) {
-            blocks.add(new Constant((blockIDGlobalIterator++)+"",false));
+    private class IfStatement implements BlockEnd {
+
+        private final SyntaxTree ifBranch;
+        private final ArrayList<String> ifSuccessors;
+        private final ArrayList<Constant> blocks;
+        //the if/elseif/else being generated
+        private int i;
+
+        /**
+         * the default constructor, it creates the blocks of the if.
+         * @param ifBranch the starting node of the if statement.
+         * @throws TokenDoesNotExistException if an invalid token is found in
+         * the tree.
+         * @throws AnalyzerExceptions if a semantic error is detected while
+         * analyzing the grammar tree.
+         */
+        IfStatement(SyntaxTree ifBranch)
+                throws AnalyzerExceptions, TokenDoesNotExistException {
+            this.ifBranch = ifBranch;
+            this.ifSuccessors = findIfSuccessors(ifBranch);
+            this.blocks = new ArrayList<>();
+            for (int i = 0; i < ifSuccessors.size(); i++) {
+                blocks.add(newBlock());
+            }
+            this.i = 0;
         }
 
-        for (int i = 0; i < ifSuccessors.size() ; i++) {
-            if(!ifBranch.getCurrentValue().getTerminal().getName().equals(
-                    "else")){
-                auxTac.addAll(GenerateBoolTAC(ifBranch.getChildBranch(1)));
-                auxTac.add(new TAC(new Token(Token.CONSTANTS,
+        /**
+         * this method generates the condition of the current if/elseif and
+         * opens its block of statements.
+         * @param statements the stack of blocks of statements being
+         *                   generated.
+         * @throws TokenDoesNotExistException if an invalid token is used
+         * while generating the TAC.
+         * @throws AnalyzerExceptions if a semantic error is detected while
+         * analyzing the grammar tree.
+         */
+        void start(ArrayDeque<StatementBlock> statements)
+                throws AnalyzerExceptions, TokenDoesNotExistException {
+            if (i >= ifSuccessors.size()) {
+                return;
+            }
+            if(!isElse()){
+                Token condition = GenerateBoolTAC(ifBranch.getChildBranch(1));
+                Emit(new Token(Token.CONSTANTS,
                                 blocks.get(i).getId()),
-                                auxTac.get(auxTac.size() -1).getResult(),
+                                condition,
                                 null,
-                                new Token(Token.IF)));
-                auxTac.addAll(SwitchTAC(ifBranch,3, ifSuccessors.get(i)));
+                                Token.of(Token.IF));
+                statements.push(new StatementBlock(ifBranch, 3,
+                        ifSuccessors.get(i), this));
             }else{
-                auxTac.addAll(SwitchTAC(ifBranch,0, ifSuccessors.get(i)));
+                statements.push(new StatementBlock(ifBranch, 0,
+                        ifSuccessors.get(i), this));
             }
+        }
 
-
-            if(!ifBranch.getCurrentValue().getTerminal().getName().equals(
-                    "else")) {
+        @Override
+        public void end(ArrayDeque<StatementBlock> statements)
+                throws AnalyzerExceptions, TokenDoesNotExistException {
+            if(!isElse()) {
                 //goto the end block
-                auxTac.add(new TAC(new Token(Token.CONSTANTS,
+                Emit(new Token(Token.CONSTANTS,
                         blocks.get(blocks.size()-1).getId()),
                         null,
                         null,
-                               new Token(Token.GOTO)));
+                               Token.of(Token.GOTO));
             }
 
             //create the SKIP block for this condition
-            auxTac.add(new TAC(new Token(Token.CONSTANTS, blocks.get(i).getId()),
-                            null, null, new Token(Token.BLOCK_START)));
+            Emit(new Token(Token.CONSTANTS, blocks.get(i).getId()),
+                            null, null, Token.of(Token.BLOCK_START));
 
             ifBranch.moveToChild(ifBranch.getNumberOfChildren() -1);
+            i++;
+            start(statements);
         }
 
-
-        return auxTac;
+        private boolean isElse() throws TokenDoesNotExistException {
+            return ifBranch.getCurrentValue().getTerminal().getName().equals(
+                    "else");
+        }
     }
 
     /**
      * this method generates the TAC of a math expression, respecting the
      * hierarchy of the expression.
      * @param mathBranch the starting node of the expression.
-     * @return a list of TACs that represent that math expression.
+     * @return the symbol or constant with the value of the expression.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateMathTAC(Tree<GrammarNode> mathBranch)
+    private Token GenerateMathTAC(SyntaxTree mathBranch)
             throws AnalyzerExceptions, TokenDoesNotExistException
     {
-        ArrayList<TAC> auxTac = new ArrayList<>();
-        if(mathBranch.getNumberOfChildren() == 0){
-            TAC t = new TAC();
-            t.add(mathBranch.getCurrentValue().getTerminal());
-            auxTac.add(t);
-            return auxTac;
-        }
-        else{
-            for (int i = 0; i < mathBranch.getNumberOfChildren(); i++) {
-                ArrayList<TAC> aux =
-                        GenerateMathTAC(mathBranch.getChildBranch(i));
-                //if each field of the TAC has been filled in
-                // combine yourself with  just generated children
-                if (aux.get(aux.size()-1).isFull()){
-                    TAC t = new TAC();
-                    t.add(mathBranch.getCurrentValue().getTerminal());
-                    if(auxTac.isEmpty()){
-                        t.add(aux.get(aux.size()-1).getResult());
-                    }else{
-                        //check if the aux tac is full
-                        if(auxTac.get(aux.size()-1).isFull()){
-                            t.add(auxTac.get(aux.size()-1).getResult());
-                        }else{
-                            throw new AnalyzerExceptions("two not full TACs " +
-                                    "in hand.");
-                        }
-                    }
-                    aux.add(t);
-                }else{
-                    if(auxTac.isEmpty())
-                        aux.get(aux.size()-1).add(mathBranch.getCurrentValue().getTerminal());
-                    else{
-                        if(auxTac.get(auxTac.size() -1).isFull())
-                            aux.get(aux.size()-1).add(auxTac.get(auxTac.size()-1).getResult());
-                        else{
-                            aux.get(aux.size()-1).add(auxTac.get(auxTac.size()-1).getValue2());
-
-                            TAC t = new TAC();
-                            t.add(auxTac.get(auxTac.size()-1).getOperation());
-                            t.add(aux.get(aux.size()-1).getResult());
-
-                            auxTac.remove(auxTac.size()-1);
-
-                            aux.add(t);
-                        }
-                    }
-                }
-
-                auxTac.addAll(aux);
-
-            }
-        }
-
-
-        return auxTac;
+        return new ExpressionTACVisitor(context, this).generate(mathBranch);
     }
 
     /**
      * this method generates the TACs for an assignation expression.
      * @param assBranch the starting of the assignation expression.
-     * @return  a list of TACs that represent the assignation expression.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateAssignationTAC(Tree<GrammarNode> assBranch)
+    private void GenerateAssignationTAC(SyntaxTree assBranch)
             throws AnalyzerExceptions, TokenDoesNotExistException
     {
+        Token value = GenerateMathTAC(assBranch.getChildBranch(1));
 
-
-        ArrayList<TAC> auxTac =
-                new ArrayList<>(GenerateMathTAC(assBranch.getChildBranch(1)));
-
-        if( auxTac.get(auxTac.size() -1).isFull())
-            auxTac.add(
-                new TAC(assBranch.getCurrentValue().getTerminal(),
-                         auxTac.get(auxTac.size() -1).getResult() )
-                );
-        else{
-            Token t = auxTac.get(auxTac.size() -1).getValue2();
-            auxTac.remove(auxTac.size() -1);
-            auxTac.add(
-                    new TAC(assBranch.getCurrentValue().getTerminal(), t)
-            );
-        }
-
-        return auxTac;
+        Emit(assBranch.getCurrentValue().getTerminal(), value, null, null);
     }
 
     /**
@@ -548,146 +487,131 @@ public class TACGenerator {
      * include assigning the return value to the global return auxiliary
      * placeholder variable.
      * @param returnBranch the starting of the return statement.
-     * @return a list of TACs to carry out the return operation.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateReturnTAC(Tree<GrammarNode> returnBranch)
+    private void GenerateReturnTAC(SyntaxTree returnBranch)
             throws AnalyzerExceptions, TokenDoesNotExistException {
-        ArrayList<TAC> auxTac = new ArrayList<TAC>();
-        TAC aux = new TAC(
+        Emit(
                 new Token(Token.SYMBOLS, returnVar.getId()),
-                returnBranch.getChild(0).getTerminal()
+                returnBranch.getChild(0).getTerminal(),
+                null, null
         );
-        auxTac.add(aux);
-
-        aux =
-                new TAC(null,
-                        null ,
-                        null,
-                        new Token(Token.RETURN));
-        auxTac.add(aux);
 
-        return auxTac;
+        Emit(null,
+                null ,
+                null,
+                Token.of(Token.RETURN));
     }
 
     /**
      * generates the boolean expression TACs.
      * @param boolBranch the staring node of the boolean expression.
-     * @return a list of TACs to represent the boolean expression.
+     * @return the symbol or constant with the value of the expression.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> GenerateBoolTAC(Tree<GrammarNode> boolBranch)
+    private Token GenerateBoolTAC(SyntaxTree boolBranch)
             throws AnalyzerExceptions, TokenDoesNotExistException
     {
-        ArrayList<TAC> auxTac = new ArrayList<>();
-
-
-        if(boolBranch.getNumberOfChildren() == 0){
-            TAC t = new TAC();
-            t.add(boolBranch.getCurrentValue().getTerminal());
-            auxTac.add(t);
-            return auxTac;
-        }
-        else{
-            for (int i = 0; i < boolBranch.getNumberOfChildren(); i++) {
-                ArrayList<TAC> aux = new ArrayList<TAC>(GenerateBoolTAC(boolBranch.getChildBranch(i)));
-                //if each field of the TAC has been filled in
-                // combine yourself with  just generated children
-                if (aux.get(aux.size()-1).isFull()){
-                    TAC t = new TAC();
-                    t.add(boolBranch.getCurrentValue().getTerminal());
-                    if(auxTac.isEmpty()){
-                        t.add(aux.get(aux.size()-1).getResult());
-                    }else{
-                        //check if the aux tac is full
-                        if(auxTac.get(aux.size()-1).isFull()){
-                            t.add(auxTac.get(aux.size()-1).getResult());
-                        }else{
-                            throw new AnalyzerExceptions("two not full TACs " +
-                                    "in hand.");
-                        }
-                    }
-                    aux.add(t);
-                }else{
-                    if(auxTac.isEmpty())
-                        aux.get(aux.size()-1).add(boolBranch.getCurrentValue().getTerminal());
-                    else{
-                        if(auxTac.get(auxTac.size() -1).isFull())
-                            aux.get(aux.size()-1).add(auxTac.get(auxTac.size()-1).getResult());
-                        else{
-                            aux.get(aux.size()-1).add(auxTac.get(auxTac.size()-1).getValue2());
-
-                            TAC t = new TAC();
-                            t.add(auxTac.get(auxTac.size()-1).getOperation());
-                            t.add(aux.get(aux.size()-1).getResult());
-
-                            auxTac.remove(auxTac.size()-1);
-
-                            aux.add(t);
-                        }
-                    }
-                }
-
-                auxTac.addAll(aux);
+        return new ExpressionTACVisitor(context, this).generate(boolBranch);
+    }
 
-            }
+    /**
+     * this class stores a block of statements that is being generated: the
+     * children of a node from a starting child until the ending token.
+     */
+    private static class StatementBlock {
+
+        private final SyntaxTree parent;
+        private final String endingToken;
+        //generates the TACs after the block, null if there aren't any
+        private final BlockEnd end;
+        //the next child to be generated
+        private int next;
+
+        StatementBlock(SyntaxTree parent, int startingChild,
+                       String endingToken, BlockEnd end) {
+            this.parent = parent;
+            this.next = startingChild;
+            this.endingToken = endingToken;
+            this.end = end;
         }
+    }
 
-
-        return auxTac;
+    /**
+     * an interface for the statements that generate TACs once their block
+     * of statements ends.
+     */
+    private interface BlockEnd {
+        void end(ArrayDeque<StatementBlock> statements)
+                throws AnalyzerExceptions, TokenDoesNotExistException;
     }
 
     /**
      * this method acts as a switch, it has a starting point and ending token.
      * For each node in the between those two tokens it will call the
      * appropriate methode to generate the TAC for that node.
+     *
+     * the blocks of the nested meanwhile and if statements are kept in a
+     * stack instead of being generated with recursive calls, so the depth of
+     * the nesting isn't limited by the size of the thread stack.
      * @param parentTree the parent node of the current branch of nodes.
      * @param startingChild the starting child in the branch
      * @param endingToken the ending token
-     * @return a list of all the TACs in between those two nodes.
      * @throws TokenDoesNotExistException if an invalid token is used while
      * generating the TAC.
      * @throws AnalyzerExceptions if a semantic error is detected while
      * analyzing the grammar tree.
      */
-    private ArrayList<TAC> SwitchTAC(Tree<GrammarNode> parentTree,
-                                     int startingChild, String endingToken)
+    private void SwitchTAC(SyntaxTree parentTree,
+                           int startingChild, String endingToken)
             throws TokenDoesNotExistException, AnalyzerExceptions
     {
-        ArrayList<TAC> auxTac = new ArrayList<>();
-
-        for (int i = startingChild; i < parentTree.getNumberOfChildren(); i++) {
-            if(parentTree.getChild(i).getTerminal().getName().equals(Token.MEANWHILE)){
-                //run meanwhile
-                auxTac.addAll(GenerateMeanwhileTAC(parentTree.getChildBranch(i)));
-            }else if(parentTree.getChild(i).getTerminal().getName().equals(Token.IF)){
-                //call the generate if
-                auxTac.addAll(GenerateIfTAC(parentTree.getChildBranch(i)));
-            }else if(parentTree.getChild(i).getTerminal().getId()== (Token.SYMBOLS)){
-                //call the generate assignation
-                auxTac.addAll(GenerateAssignationTAC(parentTree.getChildBranch(i)));
-            }else if(parentTree.getChild(i).getTerminal().getName().equals(Token.RETURN)){
-                auxTac.addAll(GenerateReturnTAC(parentTree.getChildBranch(i)));
-
-            }else if(parentTree.getChild(i).getTerminal().getId()== (Token.CALL)){
-                //call the generate call
-                auxTac.addAll(GenerateCallTAC(parentTree.getChildBranch(i)));
+        ArrayDeque<StatementBlock> statements = new ArrayDeque<>();
+        statements.push(new StatementBlock(parentTree, startingChild,
+                endingToken, null));
+
+        while (!statements.isEmpty()) {
+            StatementBlock block = statements.peek();
+            SyntaxTree parent = block.parent;
+            int i = block.next++;
+            if (i < parent.getNumberOfChildren()) {
+                Token child = parent.getChild(i).getTerminal();
+                if(child.getName().equals(Token.MEANWHILE)){
+                    //run meanwhile
+                    GenerateMeanwhileTAC(parent.getChildBranch(i), statements);
+                }else if(child.getName().equals(Token.IF)){
+                    //call the generate if
+                    new IfStatement(parent.getChildBranch(i))
+                            .start(statements);
+                }else if(child.getId()== (Token.SYMBOLS)){
+                    //call the generate assignation
+                    GenerateAssignationTAC(parent.getChildBranch(i));
+                }else if(child.getName().equals(Token.RETURN)){
+                    GenerateReturnTAC(parent.getChildBranch(i));
+
+                }else if(child.getId()== (Token.CALL)){
+                    //call the generate call
+                    GenerateCallTAC(parent.getChildBranch(i));
+                }
+                if (!child.getName().equals(block.endingToken)) {
+                    continue;
+                }
             }
-            else if(parentTree.getChild(i).getTerminal().getName().equals(endingToken)){
-                    break;
+            //the block ended
+            statements.pop();
+            if (block.end != null) {
+                block.end.end(statements);
             }
         }
-
-        return auxTac;
     }
 
-    public ArrayList<TAC> getTAC() {
-        return tac;
+    public Quadruples getQuadruples() {
+        return quadruples;
     }
 }
\ No newline at end of file
@@ -34,6 +34,7 @@ public class Constant {
      * requires the constant to have a value, the constructor of the class
      * requires this value to be passed.
      *
+     * @param constants the table where the constant is added.
      * @param value a string containing the value of the constant
      * @param isChar a boolean to determine if the constant is a character as
      *              the characters could also be numeric digits.
@@ -41,7 +42,7 @@ public class Constant {
      * @throws AnalyzerExceptions this exception is thrown in case an invalid
      * value is passed as a parameter
      */
-    public Constant(String value, boolean isChar) throws AnalyzerExceptions {
+    public Constant(ConstantTable constants, String value, boolean isChar) throws AnalyzerExceptions {
         value1 = Integer.MIN_VALUE;
         value2 = Float.MIN_VALUE;
         value3 = Character.MIN_VALUE;
@@ -85,8 +86,7 @@ public class Constant {
             throw new AnalyzerExceptions("Null Constant Exception");
         }
 
-        ConstantTable.table.put(ConstantTable.id, this);
-        this.id = ConstantTable.id++;
+        this.id = constants.add(this);
     }
 
     public int getId(){
@@ -3,10 +3,21 @@ package Terminals;
 import java.util.HashMap;
 
 /**
- * this is a single-tone class containing the table that stores all the
- * constants in the input code.
+ * this class contains the table that stores all the constants in the input
+ * code, each compilation has its own table (see
+ * {@link Compiler.CompilerContext}).
  */
 public class ConstantTable {
-    public static HashMap<Integer, Constant> table = new HashMap<>();
-    public static int id = 0;
+    public HashMap<Integer, Constant> table = new HashMap<>();
+    private int id = 0;
+
+    /**
+     * adds a constant to the table using the next id.
+     * @param constant the constant to be added.
+     * @return the id of the constant.
+     */
+    public int add(Constant constant) {
+        table.put(id, constant);
+        return id++;
+    }
 }
@@ -13,24 +13,28 @@ public class Function  extends Symbol{
     //---------------- attributes -----------------//
     private ArrayList<Variable> parameters;
     private int blockId;
+    private SymbolTable symbols;
 
 
     //---------------- methods -----------------//
 
     /**
      * the default constructor of a function object.
+     * @param symbols the table where the function and its parameters are
+     *                added.
      * @param name the name of the function.
      * @param type the return type of the function.
      * @throws AnalyzerExceptions thrown if the function name starts with a
      * number
      */
-    public Function(String name, String type) throws AnalyzerExceptions {
-        super(name, type ,SymbolTable.id);
+    public Function(SymbolTable symbols, String name, String type) throws AnalyzerExceptions {
+        super(name, type ,symbols.getNextId());
         if(name.toCharArray().length > 0 && Character.isDigit(name.charAt(0))) {
             throw new AnalyzerExceptions("Function names cannot start with a number");
         }
-        SymbolTable.table.put(SymbolTable.id++, this);
         this.parameters = new ArrayList<>();
+        this.symbols = symbols;
+        symbols.add(this);
     }
 
     /**
@@ -43,7 +47,7 @@ public class Function  extends Symbol{
      * follow the language's specifications.
      */
     public void addParameter(String name, String type, Integer scope) throws AnalyzerExceptions {
-        this.parameters.add(new Variable(name, type, scope));
+        this.parameters.add(new Variable(symbols, name, type, scope));
     }
 
     public void setBlockId(int blockId) {
@@ -4,14 +4,28 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
- * this is a singleton class that stores all the symbols in the input code.
+ * this class stores all the symbols in the input code, each compilation has
+ * its own table (see {@link Compiler.CompilerContext}).
+ *
+ * besides the table of symbols by id, the table keeps an index of the
+ * symbols by name, one map for each scope with the variables declared in it
+ * and an index of the functions, so the lexer doesn't need to go through all
+ * the symbols every time it finds an identifier.
  */
 public class SymbolTable {
 
     //---------------- attributes -----------------//
 
-    public static HashMap<Integer, Symbol> table = new HashMap<>();
-    public static int id = 1;
+    public HashMap<Integer, Symbol> table = new HashMap<>();
+    private int id = 1;
+
+    //the first symbol added with each name
+    private HashMap<String, Symbol> names = new HashMap<>();
+    //the variables of each scope by their name without the scope
+    private HashMap<Integer, HashMap<String, Variable>> scopes =
+            new HashMap<>();
+    //the last function declared with each name
+    private HashMap<String, Function> functions = new HashMap<>();
 
     public enum FunctionInfo{
         OK,
@@ -20,11 +34,36 @@ public class SymbolTable {
         FUNCTION_AS_PARAM
     }
 
-    public static FunctionInfo problem = FunctionInfo.OK;
+    public FunctionInfo problem = FunctionInfo.OK;
 
 
     //---------------- methods -----------------//
 
+    /**
+     * @return the id that the next symbol added to the table will have.
+     */
+    public int getNextId() {
+        return id;
+    }
+
+    /**
+     * adds a symbol to the table using the next id, the symbol must have
+     * been created with that id.
+     * @param symbol the symbol to be added.
+     */
+    public void add(Symbol symbol) {
+        table.put(id++, symbol);
+        names.putIfAbsent(symbol.getName(), symbol);
+        if (symbol instanceof Function) {
+            functions.put(symbol.getName(), (Function) symbol);
+        } else if (symbol instanceof Variable
+                && ((Variable) symbol).getScope() != -1) {
+            Variable variable = (Variable) symbol;
+            scopes.computeIfAbsent(variable.getScope(), k -> new HashMap<>())
+                    .putIfAbsent(variable.getNameWithoutScope(), variable);
+        }
+    }
+
     //pass a variable name, to see if it already has been declared
     //if we get a redeclaration of the symbol, that 's bad
 
@@ -37,17 +76,14 @@ public class SymbolTable {
      * @return an integer containing the id of the symbol if exists or a -1
      * if the symbol is not duplicated (the symbol doesn't exist in this scope)
      */
-    public static int checkSymbolExists(String name, boolean isVariable, Integer scope){
-        if(isVariable) name = name.concat(scope +"");
-        for (Symbol var : table.values()) {
-            if(var.getName().compareTo(name) == 0){
-                if(isVariable && var instanceof Variable){
-                    if(!((Variable) var).getScope().equals(scope)) return -1;
-                    else return var.getId(); // can't redeclare vars in the same scope
-                } else return var.getId(); //can't have two functions with the same name
-            }
+    public int checkSymbolExists(String name, boolean isVariable, Integer scope){
+        if(isVariable){
+            HashMap<String, Variable> variables = scopes.get(scope);
+            Variable var = variables == null ? null : variables.get(name);
+            return var == null ? -1 : var.getId(); // can't redeclare vars in the same scope
         }
-        return -1;
+        Symbol symbol = names.get(name);
+        return symbol == null ? -1 : symbol.getId(); //can't have two functions with the same name
     }
 
     /**
@@ -55,19 +91,14 @@ public class SymbolTable {
      * @param name the name of the function
      * @return true if the function exists, and false if it doesn't.
      */
-    public static boolean checkIfFunctionExists(String name){
-        for (Symbol var : table.values()) {
-            if((var.getName().compareTo(name) == 0) && var instanceof Function ){
-                return true;
-            }
-        }
-        return false;
+    public boolean checkIfFunctionExists(String name){
+        return functions.containsKey(name);
     }
 
     /**
      * this method prints out the symbol table to the terminal.
      */
-    public static void printSymbolTable(){
+    public void printSymbolTable(){
         for (Integer name: table.keySet()) {
             String key = name.toString();
             Symbol value = table.get(name);
@@ -97,20 +128,14 @@ public class SymbolTable {
      * @return true if the parameters are not valid, and false in case the
      * parameters match.
      */
-    public static boolean notValidParameters(String name, ArrayList<String> auxParameters) {
-        int funcId = -1;
-        for (Symbol var : table.values()) {
-            if((var.getName().compareTo(name) == 0) && var instanceof Function ){
-                funcId = var.getId();
-            }
-        }
-        Symbol func = table.get(funcId);
-        if(func instanceof Function){
-            if(((Function) func).getNumParameters() != auxParameters.size()){
+    public boolean notValidParameters(String name, ArrayList<String> auxParameters) {
+        Function func = functions.get(name);
+        if(func != null){
+            if(func.getNumParameters() != auxParameters.size()){
                 problem = FunctionInfo.WRONG_PARAM_NUM;
                 return true;
             }
-            ArrayList<Variable> parameters = ((Function) func).getParameters();
+            ArrayList<Variable> parameters = func.getParameters();
             for (int i = 0; i < auxParameters.size(); i++) {
                 Symbol var = table.get(getIdByName(auxParameters.get(i)  ));
                 if(var instanceof Variable){
@@ -134,14 +159,8 @@ public class SymbolTable {
      * @param name the name of the symbol
      * @return and integer containing the id of the symbol
      */
-    public static int getIdByName(String name){
-        int funcId = -1;
-        for (Symbol var : table.values()) {
-            if((var.getName().compareTo(name) == 0)){
-                funcId = var.getId();
-                return funcId;
-            }
-        }
-        return funcId;
+    public int getIdByName(String name){
+        Symbol symbol = names.get(name);
+        return symbol == null ? -1 : symbol.getId();
     }
 }
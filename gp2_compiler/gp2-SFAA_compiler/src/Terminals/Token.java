@@ -7,6 +7,9 @@ import Terminals.Exception.TokenDoesNotExistException;
  * this class stores the metadata needed to create a token. Moreover, it
  * stores general information about all tokens.
  *
+ * tokens are immutable, so the tokens without an external id are shared
+ * (see {@link #of(int)}).
+ *
  * this class implements the comparable interface so it would be possible to
  * compare two different objects of this class.
  */
@@ -14,9 +17,9 @@ public class Token implements Comparable<Token>{
 
     //---------------- attributes -----------------//
 
-    private int tokenId;
-    private String tokenName;
-    private int externalId;
+    private final int tokenId;
+    private final String tokenName;
+    private final int externalId;
 
     //defines for Token ranges and specific values we want
     //numeric defines :
@@ -67,19 +70,7 @@ public class Token implements Comparable<Token>{
      * exist.
      */
     public Token(String tokenName) throws TokenDoesNotExistException{
-        if(TokenDatabase.tokenList.containsValue(tokenName)){
-            for(Integer  key : TokenDatabase.tokenList.keySet()){
-                if(TokenDatabase.tokenList.get(key).compareTo(tokenName) == 0)
-                {
-                    this.tokenName = tokenName;
-                    this.tokenId = key;
-                    this.externalId = -1;
-                }
-            }
-        }
-        else{
-            throw new TokenDoesNotExistException();
-        }
+        this(tokenName, -1);
     }
 
     /**
@@ -89,14 +80,12 @@ public class Token implements Comparable<Token>{
      * exist.
      */
     public Token(int tokenId) throws TokenDoesNotExistException{
-        if(TokenDatabase.tokenList.containsKey(tokenId)){
-            this.tokenName = TokenDatabase.tokenList.get(tokenId);
-            this.tokenId = tokenId;
-            this.externalId = -1;
-        }
-        else{
+        this.tokenName = TokenDatabase.getName(tokenId);
+        if (this.tokenName == null) {
             throw new TokenDoesNotExistException();
         }
+        this.tokenId = tokenId;
+        this.externalId = -1;
     }
 
     /**
@@ -108,18 +97,14 @@ public class Token implements Comparable<Token>{
      * exist.
      */
     public Token(String tokenName, int externalId) throws TokenDoesNotExistException {
-        if (TokenDatabase.tokenList.containsValue(tokenName)) {
-            for (Integer key : TokenDatabase.tokenList.keySet()) {
-                if (TokenDatabase.tokenList.get(key).compareTo(tokenName)==0) {
-                    this.tokenName = tokenName;
-                    this.tokenId = key;
-                    this.externalId = externalId;
-                }
-            }
-        } else {
+        this.tokenId = TokenDatabase.getId(tokenName);
+        if (this.tokenId == -1) {
             throw new TokenDoesNotExistException();
         }
+        this.tokenName = TokenDatabase.getName(this.tokenId);
+        this.externalId = externalId;
     }
+
     /**
      * this constructor is used to link the current token (providing the
      * token id) to an external Id.
@@ -129,18 +114,57 @@ public class Token implements Comparable<Token>{
      * exist.
      */
     public Token(int tokenId, int externalId) throws TokenDoesNotExistException {
-        if (TokenDatabase.tokenList.containsKey(tokenId)) {
-            this.tokenName = TokenDatabase.tokenList.get(tokenId);
-            this.tokenId = tokenId;
-            this.externalId = externalId;
-        } else {
+        this.tokenName = TokenDatabase.getName(tokenId);
+        if (this.tokenName == null) {
             throw new TokenDoesNotExistException();
         }
+        this.tokenId = tokenId;
+        this.externalId = externalId;
         if (externalId == -1){
             throw new TokenDoesNotExistException();
         }
     }
 
+    /**
+     * this constructor is used by the token database to create the shared
+     * token instances.
+     * @param tokenId the id of the token
+     * @param tokenName the name of the token
+     */
+    Token(int tokenId, String tokenName) {
+        this.tokenId = tokenId;
+        this.tokenName = tokenName;
+        this.externalId = -1;
+    }
+
+    /**
+     * gets the shared instance of a token that has no external id. As
+     * tokens can't be modified, the same instance can be used everywhere
+     * instead of creating a new token every time.
+     * @param tokenId the id of the token.
+     * @return the shared instance of that token.
+     * @throws TokenDoesNotExistException if the token id provided doesn't
+     * exist.
+     */
+    public static Token of(int tokenId) throws TokenDoesNotExistException {
+        Token token = TokenDatabase.getFlyweight(tokenId);
+        if (token == null) {
+            throw new TokenDoesNotExistException();
+        }
+        return token;
+    }
+
+    /**
+     * gets the shared instance of a token that has no external id.
+     * @param tokenName the name of the token.
+     * @return the shared instance of that token.
+     * @throws TokenDoesNotExistException if the token name provided doesn't
+     * exist.
+     */
+    public static Token of(String tokenName) throws TokenDoesNotExistException {
+        return of(TokenDatabase.getId(tokenName));
+    }
+
     public int getId(){
         return this.tokenId;
     }
@@ -153,11 +177,6 @@ public class Token implements Comparable<Token>{
         return this.externalId;
     }
 
-    public void addExternalId(int externalId){
-            this.externalId = externalId;
-    }
-
-
     @Override
     public int compareTo(Token o) {
         return (this.getId() == o.getId()) ? 0 : 1;
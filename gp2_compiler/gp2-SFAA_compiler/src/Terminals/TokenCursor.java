@@ -0,0 +1,39 @@
+package Terminals;
+
+import Terminals.Exception.AnalyzerExceptions;
+import Terminals.Exception.TokenDoesNotExistException;
+
+/**
+ * an interface to read tokens one after the other. The tokens are accessed
+ * relative to the current token (offset 0 is the current token, offset 1 is
+ * the one after it, ...) so the source of the tokens is able to produce them
+ * on demand instead of having all of them in memory.
+ */
+public interface TokenCursor {
+
+    /**
+     * makes sure that the token in the given offset is available. This
+     * method must be called before accessing the token in that offset.
+     * @param offset the distance from the current token.
+     * @return true if the token exists, false if the input ended before it.
+     * @throws AnalyzerExceptions if producing the token violated the
+     * language lexical format.
+     * @throws TokenDoesNotExistException if an invalid token was produced.
+     */
+    boolean fill(int offset) throws AnalyzerExceptions, TokenDoesNotExistException;
+
+    int getId(int offset);
+
+    int getExternalId(int offset);
+
+    int getLine(int offset);
+
+    int getColumn(int offset);
+
+    String getName(int offset);
+
+    /**
+     * moves the cursor to the next token.
+     */
+    void advance();
+}
@@ -1,5 +1,6 @@
 package Terminals;
 
+import com.opencsv.CSVParser;
 import com.opencsv.CSVReader;
 
 import java.io.BufferedReader;
@@ -10,16 +11,32 @@ import java.util.Arrays;
 import java.util.HashMap;
 
 /**
- * this is a single-tone class that stores all the tokens and their ids.
+ * this is a single-tone class that stores all the tokens and their ids. The
+ * tokens are read only once and don't change after that, so they are shared
+ * by all the compilations of the process.
  */
 public class TokenDatabase {
 
     //---------------- attributes -----------------//
 
     /* the file where the tokens are located */
-    private  final String TOKEN_FILE = "Resources/Tokens.csv";
+    public static final String TOKEN_FILE = "Resources/Tokens.csv";
     public  static HashMap<Integer, String> tokenList = new HashMap<>();
 
+    /* id -> name of the token, null if the id isn't used */
+    private static String[] names = new String[0];
+    /* id -> shared token instance without an external id */
+    private static Token[] flyweights = new Token[0];
+    /* id -> true if the name of the token is in the hash table */
+    private static boolean[] indexed = new boolean[0];
+    /* perfect hash table of the names: slot -> id of the token (or -1) */
+    private static int[] slots = {-1, -1};
+    private static int seed = 1;
+    private static int shift = 31;
+    private static boolean loaded = false;
+
+    private static final int MAX_SEED_ATTEMPTS = 1024;
+
     //---------------- methods -----------------//
 
     /**
@@ -27,10 +44,26 @@ public class TokenDatabase {
      * using the token file provided by the TOKEN_FILE attribute.
      */
     public TokenDatabase(){
+        load();
+    }
+
+    /**
+     * reads the token file, the file is only read the first time this method
+     * is called.
+     */
+    private static synchronized void load() {
+        if (loaded) {
+            return;
+        }
         String line = "";
         String splitBy = ",";
 
-        try (CSVReader csvReader = new CSVReader(new FileReader(TOKEN_FILE));) {
+        // the escape character is disabled, otherwise the backslashes of
+        // the comment tokens are dropped and "\*", "*\" and "*" are read
+        // as the same name
+        try (CSVReader csvReader = new CSVReader(new FileReader(TOKEN_FILE),
+                CSVParser.DEFAULT_SEPARATOR, CSVParser.DEFAULT_QUOTE_CHARACTER,
+                CSVParser.NULL_CHARACTER);) {
             String[] values = null;
             while ((values = csvReader.readNext()) != null) {
                 tokenList.put(Integer.parseInt(Arrays.asList(values).get(0)),
@@ -41,5 +74,165 @@ public class TokenDatabase {
         {
             e.printStackTrace();
         }
+        buildIndex();
+        loaded = true;
+    }
+
+    /**
+     * builds the array based indexes of the token list: the id -> name
+     * array, the shared token instances and a perfect hash table of the
+     * names (a table where every name has its own slot).
+     */
+    private static void buildIndex() {
+        int maxId = -1;
+        for (Integer id : tokenList.keySet()) {
+            maxId = Math.max(maxId, id);
+        }
+        names = new String[maxId + 1];
+        for (Integer id : tokenList.keySet()) {
+            names[id] = tokenList.get(id);
+        }
+        indexed = findIndexedIds();
+
+        int bits = 1;
+        while ((1 << bits) < tokenList.size() * 2) {
+            bits++;
+        }
+        // look for a table size and a seed without collisions, if the
+        // names can't be separated the table falls back to linear probing
+        boolean perfect = false;
+        for (; bits < 16 && !perfect; bits++) {
+            for (int s = 1; s < MAX_SEED_ATTEMPTS * 2 && !perfect; s += 2) {
+                perfect = fillSlots(bits, s, false);
+            }
+        }
+        if (!perfect) {
+            fillSlots(bits, 1, true);
+        }
+
+        flyweights = new Token[maxId + 1];
+        for (int id = 0; id <= maxId; id++) {
+            if (names[id] != null) {
+                flyweights[id] = new Token(id, names[id]);
+            }
+        }
+    }
+
+    /**
+     * checks that the names of the tokens are unique. A repeated name can't
+     * be told apart by its hash, so only its last id is put in the hash
+     * table (the id the name was resolved to before the table existed).
+     * @return true for each id whose name is in the hash table.
+     */
+    private static boolean[] findIndexedIds() {
+        boolean[] found = new boolean[names.length];
+        HashMap<String, Integer> lastId = new HashMap<>();
+        for (int id = 0; id < names.length; id++) {
+            if (names[id] == null) {
+                continue;
+            }
+            Integer previous = lastId.put(names[id], id);
+            if (previous != null) {
+                System.err.println("Token \"" + names[id] + "\" is repeated in "
+                        + TOKEN_FILE + " (ids " + previous + " and " + id
+                        + "), only id " + id + " can be found by its name");
+                found[previous] = false;
+            }
+            found[id] = true;
+        }
+        return found;
+    }
+
+    /**
+     * fills the hash table of the names.
+     * @param bits the size of the table as a power of two.
+     * @param s the seed used to hash the names.
+     * @param probe if true collisions are solved by probing the next slots,
+     *              otherwise the table is discarded on the first collision.
+     * @return true if the table was filled.
+     */
+    private static boolean fillSlots(int bits, int s, boolean probe) {
+        int[] table = new int[1 << bits];
+        Arrays.fill(table, -1);
+        for (int id = 0; id < names.length; id++) {
+            if (!indexed[id]) {
+                continue;
+            }
+            int slot = hash(names[id], s, 32 - bits);
+            while (table[slot] != -1) {
+                if (!probe) {
+                    return false;
+                }
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = id;
+        }
+        slots = table;
+        seed = s;
+        shift = 32 - bits;
+        return true;
+    }
+
+    /**
+     * a seeded FNV-1a hash of the name. String.hashCode() isn't used as
+     * some token names share the same hash code (for example "+=" and "*\").
+     * @param name the name to be hashed.
+     * @param s the seed of the hash.
+     * @param shift the number of bits to discard.
+     * @return the slot of the name in the hash table.
+     */
+    private static int hash(String name, int s, int shift) {
+        int h = 0x811C9DC5 ^ s;
+        for (int i = 0; i < name.length(); i++) {
+            h = (h ^ name.charAt(i)) * 0x01000193;
+        }
+        return ((h ^ (h >>> 15)) * 0x9E3779B1) >>> shift;
+    }
+
+    /**
+     * gets the id of a token by its name.
+     * @param name the name of the token.
+     * @return the id of the token, or -1 if it doesn't exist.
+     */
+    public static int getId(String name) {
+        int slot = hash(name, seed, shift);
+        while (slots[slot] != -1) {
+            if (names[slots[slot]].equals(name)) {
+                return slots[slot];
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * gets the name of a token by its id.
+     * @param id the id of the token.
+     * @return the name of the token, or null if it doesn't exist.
+     */
+    public static String getName(int id) {
+        if (id < 0 || id >= names.length) {
+            return null;
+        }
+        return names[id];
+    }
+
+    /**
+     * @return the number of token ids, every id is lower than this value.
+     */
+    public static int getNumberOfIds() {
+        return names.length;
+    }
+
+    /**
+     * gets the shared token instance (without an external id) of a token.
+     * @param id the id of the token.
+     * @return the token instance, or null if it doesn't exist.
+     */
+    public static Token getFlyweight(int id) {
+        if (id < 0 || id >= flyweights.length) {
+            return null;
+        }
+        return flyweights[id];
     }
 }
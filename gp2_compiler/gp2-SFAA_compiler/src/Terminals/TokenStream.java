@@ -0,0 +1,182 @@
+package Terminals;
+
+import Terminals.Exception.TokenDoesNotExistException;
+
+import java.util.Arrays;
+
+/**
+ * this class stores a sequence of tokens as parallel arrays of integers
+ * (token id, external id, line and column) instead of one object per token.
+ * The arrays grow by doubling when they are full.
+ */
+public class TokenStream {
+
+    //---------------- attributes -----------------//
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] ids;
+    private int[] externalIds;
+    private int[] lines;
+    private int[] columns;
+    private int size;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, creates an empty stream.
+     */
+    public TokenStream() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * creates an empty stream with a given initial capacity.
+     * @param capacity the number of tokens the stream can hold before
+     *                 growing.
+     */
+    public TokenStream(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.ids = new int[capacity];
+        this.externalIds = new int[capacity];
+        this.lines = new int[capacity];
+        this.columns = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * appends a token to the end of the stream.
+     * @param id the id of the token.
+     * @param externalId the external id of the token (-1 if it has none).
+     * @param line the line where the token was found.
+     * @param column the column where the token starts.
+     */
+    public void add(int id, int externalId, int line, int column) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            externalIds = Arrays.copyOf(externalIds, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        ids[size] = id;
+        externalIds[size] = externalId;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+
+    /**
+     * removes the first tokens of the stream, the remaining tokens are
+     * moved to the beginning.
+     * @param count the number of tokens to be removed.
+     */
+    public void discard(int count) {
+        count = Math.min(count, size);
+        int remaining = size - count;
+        System.arraycopy(ids, count, ids, 0, remaining);
+        System.arraycopy(externalIds, count, externalIds, 0, remaining);
+        System.arraycopy(lines, count, lines, 0, remaining);
+        System.arraycopy(columns, count, columns, 0, remaining);
+        size = remaining;
+    }
+
+    /**
+     * removes all the tokens from the stream, the capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int position) {
+        return ids[position];
+    }
+
+    public int getExternalId(int position) {
+        return externalIds[position];
+    }
+
+    public void setExternalId(int position, int externalId) {
+        externalIds[position] = externalId;
+    }
+
+    public int getLine(int position) {
+        return lines[position];
+    }
+
+    public int getColumn(int position) {
+        return columns[position];
+    }
+
+    /**
+     * @param position the position of the token in the stream.
+     * @return the name of the token in that position.
+     */
+    public String getName(int position) {
+        return TokenDatabase.getName(ids[position]);
+    }
+
+    /**
+     * creates a cursor that reads the tokens of this stream from the
+     * beginning.
+     * @return a cursor over this stream.
+     */
+    public TokenCursor cursor() {
+        return new TokenCursor() {
+            private int position = 0;
+
+            @Override
+            public boolean fill(int offset) {
+                return position + offset < size;
+            }
+
+            @Override
+            public int getId(int offset) {
+                return TokenStream.this.getId(position + offset);
+            }
+
+            @Override
+            public int getExternalId(int offset) {
+                return TokenStream.this.getExternalId(position + offset);
+            }
+
+            @Override
+            public int getLine(int offset) {
+                return TokenStream.this.getLine(position + offset);
+            }
+
+            @Override
+            public int getColumn(int offset) {
+                return TokenStream.this.getColumn(position + offset);
+            }
+
+            @Override
+            public String getName(int offset) {
+                return TokenStream.this.getName(position + offset);
+            }
+
+            @Override
+            public void advance() {
+                position++;
+            }
+        };
+    }
+
+    /**
+     * creates a token object out of one of the tokens in the stream.
+     * @param position the position of the token in the stream.
+     * @return the token in that position.
+     * @throws TokenDoesNotExistException if the id stored in that position
+     * isn't a valid token.
+     */
+    public Token getToken(int position) throws TokenDoesNotExistException {
+        if (externalIds[position] == -1) {
+            return Token.of(ids[position]);
+        }
+        return new Token(ids[position], externalIds[position]);
+    }
+}
@@ -17,48 +17,51 @@ public class Variable extends Symbol{
 
     /**
      * the default constructor of a variable object.
+     * @param symbols the table where the variable is added.
      * @param name the name of the variable.
      * @param type the type of the variable.
      * @param scope the scope of the variable.
      * @throws AnalyzerExceptions thrown if the variable name starts with a
      * number
      */
-    public Variable(String name, String type, Integer scope) throws AnalyzerExceptions{
-        super(name, type ,SymbolTable.id);
+    public Variable(SymbolTable symbols, String name, String type, Integer scope) throws AnalyzerExceptions{
+        super(name, type ,symbols.getNextId());
         if(name.toCharArray().length > 0 && Character.isDigit(name.charAt(0))) {
             throw new AnalyzerExceptions("Variable names cannot start with a number");
         }
-        SymbolTable.table.put(SymbolTable.id++, this);
         this.scope = scope;
+        symbols.add(this);
     }
 
     /**
      * a variable object constructor with the default scope and without name
      * restrictions.
+     * @param symbols the table where the variable is added.
      * @param name the name of the variable.
      * @param type the type of the variable.
      */
-    public Variable(String name, String type){
+    public Variable(SymbolTable symbols, String name, String type){
 
-        super(name, type ,SymbolTable.id);
-        SymbolTable.table.put(SymbolTable.id++, this);
+        super(name, type ,symbols.getNextId());
         this.scope = -1;
+        symbols.add(this);
     }
 
     public Integer getScope(){ return this.scope;}
 
     /**
      * sets the vaule of a variable
+     * @param constants the table where the value is added.
      * @param value the new value.
      * @throws AnalyzerExceptions thrown if the value's type doesn't match
      * the type of the variable.
      */
-    public void setValue(String value) throws AnalyzerExceptions{
+    public void setValue(ConstantTable constants, String value) throws AnalyzerExceptions{
         boolean isChar = this.getType().equals("char");
         if(isChar && value.charAt(0) == '\'')
             value = value.substring(1, value.length());
         else isChar = false;
-        Constant c = new Constant(value, isChar);
+        Constant c = new Constant(constants, value, isChar);
         if (c.getType().equals(this.getType()))
             this.value = c;
         else
@@ -0,0 +1,179 @@
+package Tree;
+
+import java.util.Arrays;
+
+/**
+ * this class stores the nodes of a tree as parallel arrays of integers
+ * (kind, symbol, external id, first child, next sibling and parent) instead
+ * of one object per node. A node is identified by its position in the
+ * arrays, and the children of a node are a linked list that starts in its
+ * first child and continues through the next sibling of each child.
+ *
+ * the arrays grow by doubling when they are full, and all the nodes are
+ * released at once with {@link #reset()}, which keeps the capacity so the
+ * arena can be used again for the next tree.
+ */
+public class TreeArena {
+
+    //---------------- attributes -----------------//
+
+    public static final int NONE = -1;
+
+    public static final byte TERMINAL = 0;
+    public static final byte NON_TERMINAL = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] kinds;
+    private int[] symbols;
+    private int[] externalIds;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] parents;
+    private int[] numberOfChildren;
+    private int size;
+
+    //---------------- methods -----------------//
+
+    /**
+     * the default constructor, creates an empty arena.
+     */
+    public TreeArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * creates an empty arena with a given initial capacity.
+     * @param capacity the number of nodes the arena can hold before growing.
+     */
+    public TreeArena(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.kinds = new byte[capacity];
+        this.symbols = new int[capacity];
+        this.externalIds = new int[capacity];
+        this.firstChildren = new int[capacity];
+        this.nextSiblings = new int[capacity];
+        this.parents = new int[capacity];
+        this.numberOfChildren = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * creates a new node without parent and children.
+     * @param kind {@link #TERMINAL} or {@link #NON_TERMINAL}.
+     * @param symbol the id of the token or non-terminal of the node.
+     * @param externalId the external id of the token (-1 if it has none).
+     * @return the new node.
+     */
+    public int add(byte kind, int symbol, int externalId) {
+        if (size == symbols.length) {
+            int capacity = symbols.length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            externalIds = Arrays.copyOf(externalIds, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            numberOfChildren = Arrays.copyOf(numberOfChildren, capacity);
+        }
+        kinds[size] = kind;
+        symbols[size] = symbol;
+        externalIds[size] = externalId;
+        firstChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        parents[size] = NONE;
+        numberOfChildren[size] = 0;
+        return size++;
+    }
+
+    /**
+     * adds a node at the end of the children of another node.
+     * @param parent the node that receives the child.
+     * @param lastChild the current last child of the parent (NONE if it has
+     *                  no children), the arena doesn't keep track of it.
+     * @param child the node to be added, it must not be in another list.
+     */
+    public void addChild(int parent, int lastChild, int child) {
+        if (lastChild == NONE) {
+            firstChildren[parent] = child;
+        } else {
+            nextSiblings[lastChild] = child;
+        }
+        nextSiblings[child] = NONE;
+        parents[child] = parent;
+        numberOfChildren[parent]++;
+    }
+
+    /**
+     * replaces the children of a node.
+     * @param parent the node that receives the children.
+     * @param children the new children, in order.
+     * @param count the number of children to take from the array.
+     */
+    public void setChildren(int parent, int[] children, int count) {
+        int previous = NONE;
+        for (int i = 0; i < count; i++) {
+            addChild(parent, previous, children[i]);
+            previous = children[i];
+        }
+        if (previous == NONE) {
+            firstChildren[parent] = NONE;
+        }
+        numberOfChildren[parent] = count;
+    }
+
+    /**
+     * copies the kind, symbol and external id of a node into another one,
+     * the position of both nodes in the tree doesn't change.
+     * @param node the node that is modified.
+     * @param from the node whose value is copied.
+     */
+    public void copyValue(int node, int from) {
+        kinds[node] = kinds[from];
+        symbols[node] = symbols[from];
+        externalIds[node] = externalIds[from];
+    }
+
+    /**
+     * releases all the nodes at once, the capacity is kept.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isTerminal(int node) {
+        return kinds[node] == TERMINAL;
+    }
+
+    public byte getKind(int node) {
+        return kinds[node];
+    }
+
+    public int getSymbol(int node) {
+        return symbols[node];
+    }
+
+    public int getExternalId(int node) {
+        return externalIds[node];
+    }
+
+    public int getFirstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int getNextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getNumberOfChildren(int node) {
+        return numberOfChildren[node];
+    }
+}